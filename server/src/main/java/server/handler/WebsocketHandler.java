@@ -3,6 +3,7 @@ package server.handler;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
+import chess.GameStatus;
 import com.google.gson.Gson;
 import dataaccess.AuthDAO;
 import model.AuthData;
@@ -85,14 +86,19 @@ public class WebsocketHandler {
                     ChessMove move = command.getMove();
                     chessGame.makeMove(move);
 
-                    ChessGame.TeamColor opponentColor = chessGame.getTeamTurn();
+                    GameStatus status = chessGame.getStatus();
+                    ChessGame.TeamColor opponentColor = status.sideToMove();
                     String opponentUsername = (opponentColor == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
 
-                    if (chessGame.isInCheckmate(opponentColor)) {
-                        chessGame.setGameOver(true);
-                        sessions.broadcast(gameID, gson.toJson(ServerMessage.notification("Checkmate! " + opponentUsername + " loses.")));
-                    } else if (chessGame.isInCheck(opponentColor)) {
-                        sessions.broadcast(gameID, gson.toJson(ServerMessage.notification(opponentUsername + " is in check.")));
+                    switch (status.state()) {
+                        case CHECKMATE -> sessions.broadcast(gameID, gson.toJson(ServerMessage.notification("Checkmate! " + opponentUsername + " loses.")));
+                        case STALEMATE -> sessions.broadcast(gameID, gson.toJson(ServerMessage.notification("Stalemate! The game is a draw.")));
+                        case DRAW_BY_REPETITION -> sessions.broadcast(gameID, gson.toJson(ServerMessage.notification("Draw by fivefold repetition.")));
+                        case DRAW_BY_SEVENTY_FIVE_MOVE_RULE -> sessions.broadcast(gameID, gson.toJson(ServerMessage.notification("Draw by the seventy-five-move rule.")));
+                        case DRAW_BY_INSUFFICIENT_MATERIAL -> sessions.broadcast(gameID, gson.toJson(ServerMessage.notification("Draw by insufficient material.")));
+                        case CHECK -> sessions.broadcast(gameID, gson.toJson(ServerMessage.notification(opponentUsername + " is in check.")));
+                        default -> {
+                        }
                     }
 
                     GameData updatedGame = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), chessGame);
@@ -0,0 +1,239 @@
+package chess;
+
+/**
+ * Precomputed attack tables for every piece type.
+ * <p>
+ * Knights, kings and pawns use a plain table per square. Rooks and bishops
+ * use magic bitboards: the relevant blockers on a square's rays are
+ * multiplied by a magic number so that the top bits of the product index
+ * straight into a table of attack sets, giving any occupancy's attacks in
+ * one lookup. The magic numbers below were found with the usual random
+ * search over sparse candidates and are known to map every blocker set
+ * without destructive collisions.
+ * <p>
+ * All sets include the first blocker on each ray whatever its color;
+ * callers mask out their own pieces.
+ */
+public final class Attacks {
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = {
+            0x0080007080A04000L, 0x8040012000431000L, 0x2180088020001000L, 0x028010000C080080L,
+            0x0300080010045300L, 0x33000A2500080400L, 0xC080010020800200L, 0x0100090004402182L,
+            0x1010800040022080L, 0x2200802004804000L, 0x8088802009900080L, 0x0000808008001000L,
+            0xA040808004004800L, 0x08020010050A0008L, 0x0004000802040130L, 0x0000800041000080L,
+            0x0482218001864000L, 0xC030024004200840L, 0x100822001181C200L, 0x6008008010018009L,
+            0x000080800C030800L, 0x2400880110400420L, 0x20C1B50100040200L, 0x040022000C410084L,
+            0x8440022080088040L, 0x0010035040042000L, 0x0054900080200080L, 0x010010010021000AL,
+            0x0804000480080080L, 0x400A000280800400L, 0x0002218C00300A18L, 0x6600A08200110044L,
+            0x0820400022800280L, 0x0840814010802002L, 0x0806004352002080L, 0x0404480280805000L,
+            0x4008010011001804L, 0xC0220004020050A8L, 0x045A000802000124L, 0x2068800141802100L,
+            0x40004004A0808002L, 0x9002200AD0024000L, 0x4203022000490010L, 0x8410004800808010L,
+            0x8008005400808008L, 0x2000040002008080L, 0x0301080110040082L, 0x0012C50680420004L,
+            0x0009408000211100L, 0x1010004004200040L, 0x0003881042022200L, 0x0050008010080180L,
+            0x0010080050150100L, 0x0153000400084300L, 0x0080104518020400L, 0x0022012040840200L,
+            0x0459800812610043L, 0xC081810840120022L, 0x0120401882001022L, 0x41010010002820C5L,
+            0x1246931100080003L, 0x0249000208840035L, 0x0000081002409304L, 0x0018004024088102L
+    };
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = {
+            0x080A201802004440L, 0x24A0040102003220L, 0x8410044180E14102L, 0x83144100610A0020L,
+            0x042310C000800010L, 0x03A2020220500002L, 0x0085090860041000L, 0x0420210400A04849L,
+            0x0800282005061210L, 0x0004111002008020L, 0x0000080200420808L, 0x8000582481000030L,
+            0x00004A1210020440L, 0x1400010120100020L, 0x400180840442400CL, 0x1804508844022083L,
+            0x1988412008101180L, 0x1020004898068490L, 0x4011001208020880L, 0x0008000892004000L,
+            0x1604100602020108L, 0x0150881200900840L, 0x5100448402225024L, 0x1000804024010820L,
+            0x01200C0010100280L, 0x0001200010240100L, 0x0200480011081100L, 0x05080800008A0120L,
+            0x300901008150C000L, 0x004104C002005018L, 0x0858060004848440L, 0x700201420203028DL,
+            0x0010100408124408L, 0x0804100800E3021AL, 0x00044410080202A0L, 0x2020380801020A00L,
+            0x0C20040400884030L, 0x4482042040880800L, 0x0304680209008880L, 0x48228C0380010880L,
+            0x02C804100A000400L, 0x0044050803080890L, 0x4191004422005002L, 0x00000D0403004820L,
+            0x0620482008200100L, 0x50C0100041440080L, 0x4028080104120042L, 0x00848C8210401200L,
+            0x0107880C0220002CL, 0x0000410410021000L, 0x024001040114600AL, 0x0400004020881018L,
+            0x2400001002020500L, 0x0041188208220200L, 0x04110E3019021000L, 0x000C100401042050L,
+            0x4001040105011040L, 0x08004144028C1040L, 0x000D1001C05C1003L, 0x002C014000842400L,
+            0x0300500050020624L, 0x040100480AA80A02L, 0x0000042002020A01L, 0x8028200F0200A103L
+    };
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    //indexed [from * 64 + to]; zero when the squares don't share a rank, file or diagonal
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {1, 2}, {1, -2}, {-2, 1}, {-2, -1}, {-1, 2}, {-1, -2}};
+        int[][] kingSteps = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = leaperAttacks(square, knightSteps);
+            KING[square] = leaperAttacks(square, kingSteps);
+            PAWN[Bitboards.WHITE][square] = leaperAttacks(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN[Bitboards.BLACK][square] = leaperAttacks(square, new int[][]{{-1, 1}, {-1, -1}});
+        }
+
+        ROOK_TABLE = initSliders(ROOK_DIRECTIONS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_OFFSET);
+        BISHOP_TABLE = initSliders(BISHOP_DIRECTIONS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_OFFSET);
+        initLines(ROOK_DIRECTIONS);
+        initLines(BISHOP_DIRECTIONS);
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @param color color index of the pawn (see {@link Bitboards#WHITE})
+     * @return squares a pawn of that color on {@code square} attacks diagonally
+     */
+    public static long pawn(int color, int square) {
+        return PAWN[color][square];
+    }
+
+    public static long rook(int square, long occupancy) {
+        long blockers = occupancy & ROOK_MASK[square];
+        return ROOK_TABLE[ROOK_OFFSET[square] + (int) ((blockers * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square])];
+    }
+
+    public static long bishop(int square, long occupancy) {
+        long blockers = occupancy & BISHOP_MASK[square];
+        return BISHOP_TABLE[BISHOP_OFFSET[square] + (int) ((blockers * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square])];
+    }
+
+    /**
+     * @return the squares a piece of this bitboard piece index (see
+     * {@link Bitboards#pieceIndex}) attacks from square
+     */
+    static long piece(int pieceIndex, int square, long occupancy) {
+        return switch (pieceIndex % 6) {
+            case 0 -> king(square);
+            case 1 -> queen(square, occupancy);
+            case 2 -> bishop(square, occupancy);
+            case 3 -> knight(square);
+            case 4 -> rook(square, occupancy);
+            default -> pawn(pieceIndex / 6, square);
+        };
+    }
+
+    public static long queen(int square, long occupancy) {
+        return rook(square, occupancy) | bishop(square, occupancy);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared rank, file
+     * or diagonal, or 0 if they aren't lined up
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[(from << 6) | to];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal through both squares (edge to
+     * edge), or 0 if they aren't lined up
+     */
+    public static long line(int from, int to) {
+        return LINE[(from << 6) | to];
+    }
+
+    private static void initLines(int[][] directions) {
+        for (int from = 0; from < 64; from++) {
+            for (int[] direction : directions) {
+                long ray = slidingAttacks(from, 0, new int[][]{direction}, false);
+                long opposite = slidingAttacks(from, 0, new int[][]{{-direction[0], -direction[1]}}, false);
+                long line = ray | opposite | (1L << from);
+                long between = 0;
+                int row = (from >>> 3) + direction[0];
+                int col = (from & 7) + direction[1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    int to = (row << 3) | col;
+                    BETWEEN[(from << 6) | to] = between;
+                    LINE[(from << 6) | to] = line;
+                    between |= 1L << to;
+                    row += direction[0];
+                    col += direction[1];
+                }
+            }
+        }
+    }
+
+    private static long leaperAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int row = (square >>> 3) + step[0];
+            int col = (square & 7) + step[1];
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= 1L << ((row << 3) | col);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each ray from the square one step at a time. Only used to fill
+     * the magic tables.
+     *
+     * @param edges if true, stops one square short of the board edge, which
+     *              gives the blocker mask instead of the attack set
+     */
+    private static long slidingAttacks(int square, long occupancy, int[][] directions, boolean edges) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                int nextRow = row + direction[0];
+                int nextCol = col + direction[1];
+                if (edges && (nextRow < 0 || nextRow > 7 || nextCol < 0 || nextCol > 7)) {
+                    break;
+                }
+                long bit = 1L << ((row << 3) | col);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                row = nextRow;
+                col = nextCol;
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] initSliders(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = slidingAttacks(square, 0, directions, true);
+            shifts[square] = 64 - Long.bitCount(masks[square]);
+            offsets[square] = size;
+            size += 1 << Long.bitCount(masks[square]);
+        }
+
+        long[] table = new long[size];
+        for (int square = 0; square < 64; square++) {
+            //enumerate every subset of the mask (carry-rippler trick)
+            long subset = 0;
+            do {
+                int index = (int) ((subset * magics[square]) >>> shifts[square]);
+                table[offsets[square] + index] = slidingAttacks(square, subset, directions, false);
+                subset = (subset - masks[square]) & masks[square];
+            } while (subset != 0);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Square numbering and bit helpers shared by the bitboard board engine.
+ * <p>
+ * Squares are numbered 0-63 starting at a1 (row 1, column 1) and moving
+ * across each row, so h8 (row 8, column 8) is square 63. A bitboard is a
+ * {@code long} where bit {@code n} is set if square {@code n} is included.
+ */
+public final class Bitboards {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+    //a1 is a dark square
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return square index for a 1-indexed row and column
+     */
+    public static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static boolean isOnBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8 && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return the color index used for bitboard arrays, 0 for white and 1 for black
+     */
+    public static int color(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    public static ChessGame.TeamColor teamColor(int color) {
+        return color == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return index 0-11 of the bitboard that holds pieces of this color and type
+     */
+    public static int pieceIndex(int color, ChessPiece.PieceType type) {
+        return color * 6 + type.ordinal();
+    }
+
+    public static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(color(piece.getTeamColor()), piece.getPieceType());
+    }
+
+    /**
+     * Pops the lowest set bit of a bitboard, usually as
+     * {@code int sq = Long.numberOfTrailingZeros(bb); bb = popLowest(bb);}
+     */
+    public static long popLowest(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+}
@@ -3,7 +3,6 @@ package chess;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -12,9 +11,73 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessBoard {
-    private final ChessPiece[][] squares = new ChessPiece[8][8];
+    private final ChessPiece[][] squares;
+
+    //bitboard index kept alongside squares, null until first needed (not serialized)
+    private transient long[] pieceBitboards;
+    private transient long[] colorOccupancy;
+    private transient long zobristKey;
+    //count of each piece index in 4 bits, lowest index in the lowest bits
+    private transient long materialSignature;
+    //optional attack maps: attackers of each square per color (color * 64 + square)
+    //and the squares each color attacks, rebuilt along with the index
+    private transient boolean attackTracking;
+    private transient byte[] attackerCounts;
+    private transient long[] attackedSquares;
+    //rows that may also belong to a copy of this board, one bit per row; see ownRow
+    private transient int sharedRows;
+
+    //FEN letter for each piece index, white in upper case
+    private static final String FEN_PIECES = "KQBNRPkqbnrp";
+
     public ChessBoard() {
-        
+        squares = new ChessPiece[8][8];
+    }
+
+    private ChessBoard(ChessBoard other) {
+        //both boards share the rows until one of them writes to a row
+        squares = other.squares.clone();
+        sharedRows = 0xFF;
+        other.sharedRows = 0xFF;
+        if (other.pieceBitboards != null) {
+            pieceBitboards = other.pieceBitboards.clone();
+            colorOccupancy = other.colorOccupancy.clone();
+            zobristKey = other.zobristKey;
+            materialSignature = other.materialSignature;
+        }
+        attackTracking = other.attackTracking;
+        if (other.attackerCounts != null) {
+            attackerCounts = other.attackerCounts.clone();
+            attackedSquares = other.attackedSquares.clone();
+        }
+    }
+
+    /**
+     * Copies the board. The bitboards are copied flat, the rows of squares
+     * are shared until either board changes one, and the pieces themselves,
+     * which are immutable, are shared.
+     *
+     * @return an independent board with the same pieces
+     */
+    public ChessBoard copy() {
+        return new ChessBoard(this);
+    }
+
+    /**
+     * @return approximate heap bytes for the board, its rows and whichever
+     * indexes have been built (see {@link ChessGame#residentBytes()})
+     */
+    long residentBytes() {
+        long bytes = Footprint.object(Footprint.fieldBytes(ChessBoard.class))
+                + Footprint.array(8, Footprint.REFERENCE)
+                + 8 * Footprint.array(8, Footprint.REFERENCE);
+        if (pieceBitboards != null) {
+            bytes += Footprint.array(pieceBitboards.length, 8) + Footprint.array(colorOccupancy.length, 8);
+        }
+        if (attackerCounts != null) {
+            bytes += Footprint.array(attackerCounts.length, 1) + Footprint.array(attackedSquares.length, 8);
+        }
+        return bytes;
     }
 
     @Override
@@ -23,12 +86,12 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return Arrays.equals(pieceBitboards(), that.pieceBitboards());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(getZobristKey());
     }
 
     /**
@@ -38,7 +101,54 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        setPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Puts a piece (or null) on a square by index (see {@link Bitboards}),
+     * keeping the bitboards in step
+     */
+    void setPiece(int square, ChessPiece piece) {
+        ChessPiece[] row = ownRow(square >>> 3);
+        int col = square & 7;
+        if (pieceBitboards != null) {
+            long bit = 1L << square;
+            ChessPiece old = row[col];
+            //sliders that see this square see further or less far after the change
+            long sliders = attackTracking ? slidersThrough(square) : 0;
+            if (attackTracking) {
+                updateAttacks(sliders, old, square, -1);
+            }
+            if (old != null) {
+                int index = Bitboards.pieceIndex(old);
+                pieceBitboards[index] &= ~bit;
+                colorOccupancy[Bitboards.color(old.getTeamColor())] &= ~bit;
+                zobristKey ^= Zobrist.piece(index, square);
+                materialSignature -= 1L << (index << 2);
+            }
+            if (piece != null) {
+                int index = Bitboards.pieceIndex(piece);
+                pieceBitboards[index] |= bit;
+                colorOccupancy[Bitboards.color(piece.getTeamColor())] |= bit;
+                zobristKey ^= Zobrist.piece(index, square);
+                materialSignature += 1L << (index << 2);
+            }
+            if (attackTracking) {
+                updateAttacks(sliders, piece, square, 1);
+            }
+        }
+        row[col] = piece;
+    }
+
+    /**
+     * Clones a row this board shares with a copy before it is written
+     */
+    private ChessPiece[] ownRow(int row) {
+        if ((sharedRows & (1 << row)) != 0) {
+            squares[row] = squares[row].clone();
+            sharedRows &= ~(1 << row);
+        }
+        return squares[row];
     }
 
     /**
@@ -52,29 +162,344 @@ public class ChessBoard {
         return squares[position.getRow()-1][position.getColumn()-1];
     }
 
+    /**
+     * Gets a chess piece by square index (see {@link Bitboards})
+     */
+    ChessPiece getPiece(int square) {
+        return squares[square >>> 3][square & 7];
+    }
+
     public ChessPosition findPiece(ChessPiece.PieceType type, ChessGame.TeamColor color) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPiece currentPiece = getPiece(new ChessPosition(row,col));
-                if (currentPiece != null && currentPiece.getPieceType() == type && currentPiece.getTeamColor() == color) {
-                    return new ChessPosition(row,col);
+        long pieces = getPieceBitboard(color, type);
+        if (pieces == 0) {
+            return null;
+        }
+        return Bitboards.position(Long.numberOfTrailingZeros(pieces));
+    }
+
+    public Collection<ChessPosition> findAllPiecesOfColor(ChessGame.TeamColor color) {
+        long pieces = getOccupancy(color);
+        ArrayList<ChessPosition> positions = new ArrayList<>(Long.bitCount(pieces));
+        while (pieces != 0) {
+            positions.add(Bitboards.position(Long.numberOfTrailingZeros(pieces)));
+            pieces = Bitboards.popLowest(pieces);
+        }
+        return positions;
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getPieceBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards()[Bitboards.pieceIndex(Bitboards.color(color), type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        pieceBitboards();
+        return colorOccupancy[Bitboards.color(color)];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        pieceBitboards();
+        return colorOccupancy[Bitboards.WHITE] | colorOccupancy[Bitboards.BLACK];
+    }
+
+    /**
+     * Determines if any piece of the given color attacks a square, working
+     * back from the square with attack-table lookups instead of generating
+     * the attacker's moves
+     *
+     * @param square the square to test
+     * @param byColor the attacking team
+     * @return True if a piece of byColor could capture on square
+     */
+    public boolean isSquareAttacked(ChessPosition square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(Bitboards.square(square), Bitboards.color(byColor));
+    }
+
+    boolean isSquareAttacked(int square, int byColor) {
+        if (attackTracking) {
+            pieceBitboards();
+            return (attackedSquares[byColor] & (1L << square)) != 0;
+        }
+        return MoveGenerator.attackersTo(this, square, byColor, getOccupancy()) != 0;
+    }
+
+    /**
+     * Turns the incrementally kept attack maps on or off. While on, every
+     * addPiece updates how many pieces of each color attack each square, so
+     * {@link #getAttackedSquares}, {@link #countAttackers} and
+     * {@link #isSquareAttacked} are lookups. Each change costs a little
+     * more, so boards used for search leave it off.
+     *
+     * @param enabled whether to keep attack maps
+     */
+    public void setAttackTracking(boolean enabled) {
+        attackTracking = enabled;
+        attackerCounts = null;
+        attackedSquares = null;
+        if (enabled && pieceBitboards != null) {
+            rebuildAttacks();
+        }
+    }
+
+    public boolean isAttackTracking() {
+        return attackTracking;
+    }
+
+    /**
+     * @return bitboard of every square a piece of the given color attacks
+     */
+    public long getAttackedSquares(ChessGame.TeamColor color) {
+        pieceBitboards();
+        int colorIndex = Bitboards.color(color);
+        if (attackTracking) {
+            return attackedSquares[colorIndex];
+        }
+        long occupancy = getOccupancy();
+        long attacked = 0;
+        for (int index = colorIndex * 6; index < colorIndex * 6 + 6; index++) {
+            long pieces = pieceBitboards[index];
+            while (pieces != 0) {
+                attacked |= Attacks.piece(index, Long.numberOfTrailingZeros(pieces), occupancy);
+                pieces = Bitboards.popLowest(pieces);
+            }
+        }
+        return attacked;
+    }
+
+    /**
+     * @return how many pieces of byColor attack square
+     */
+    public int countAttackers(ChessPosition square, ChessGame.TeamColor byColor) {
+        int index = Bitboards.square(square);
+        int color = Bitboards.color(byColor);
+        pieceBitboards();
+        if (attackTracking) {
+            return attackerCounts[(color << 6) | index];
+        }
+        return Long.bitCount(MoveGenerator.attackersTo(this, index, color, getOccupancy()));
+    }
+
+    private long slidersThrough(int square) {
+        long occupancy = colorOccupancy[Bitboards.WHITE] | colorOccupancy[Bitboards.BLACK];
+        long queens = pieceBitboards[Bitboards.pieceIndex(Bitboards.WHITE, ChessPiece.PieceType.QUEEN)]
+                | pieceBitboards[Bitboards.pieceIndex(Bitboards.BLACK, ChessPiece.PieceType.QUEEN)];
+        long rooks = queens | pieceBitboards[Bitboards.pieceIndex(Bitboards.WHITE, ChessPiece.PieceType.ROOK)]
+                | pieceBitboards[Bitboards.pieceIndex(Bitboards.BLACK, ChessPiece.PieceType.ROOK)];
+        long bishops = queens | pieceBitboards[Bitboards.pieceIndex(Bitboards.WHITE, ChessPiece.PieceType.BISHOP)]
+                | pieceBitboards[Bitboards.pieceIndex(Bitboards.BLACK, ChessPiece.PieceType.BISHOP)];
+        return (Attacks.rook(square, occupancy) & rooks) | (Attacks.bishop(square, occupancy) & bishops);
+    }
+
+    /**
+     * Adds (delta 1) or removes (delta -1) the attacks of the sliders and of
+     * the piece on square, using the occupancy as it is right now
+     */
+    private void updateAttacks(long sliders, ChessPiece piece, int square, int delta) {
+        long occupancy = colorOccupancy[Bitboards.WHITE] | colorOccupancy[Bitboards.BLACK];
+        while (sliders != 0) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            addAttacks(Bitboards.pieceIndex(getPiece(from)), from, occupancy, delta);
+            sliders = Bitboards.popLowest(sliders);
+        }
+        if (piece != null) {
+            addAttacks(Bitboards.pieceIndex(piece), square, occupancy, delta);
+        }
+    }
+
+    private void addAttacks(int pieceIndex, int square, long occupancy, int delta) {
+        int color = pieceIndex < 6 ? Bitboards.WHITE : Bitboards.BLACK;
+        long targets = Attacks.piece(pieceIndex, square, occupancy);
+        long attacked = attackedSquares[color];
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            int count = attackerCounts[(color << 6) | target] += (byte) delta;
+            attacked = count == 0 ? attacked & ~(1L << target) : attacked | (1L << target);
+            targets = Bitboards.popLowest(targets);
+        }
+        attackedSquares[color] = attacked;
+    }
+
+    private void rebuildAttacks() {
+        attackerCounts = new byte[128];
+        attackedSquares = new long[2];
+        long occupancy = colorOccupancy[Bitboards.WHITE] | colorOccupancy[Bitboards.BLACK];
+        for (int index = 0; index < 12; index++) {
+            long pieces = pieceBitboards[index];
+            while (pieces != 0) {
+                addAttacks(index, Long.numberOfTrailingZeros(pieces), occupancy, 1);
+                pieces = Bitboards.popLowest(pieces);
+            }
+        }
+    }
+
+    /**
+     * The king bitboards are kept up to date by every addPiece, so finding a
+     * king is a single bit scan
+     *
+     * @return square index of the king of a color, or 64 if it has no king
+     */
+    int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.KING)));
+    }
+
+    /**
+     * Gets the Zobrist key of the piece placement, kept up to date by every
+     * addPiece. Equal boards always have equal keys.
+     *
+     * @return 64-bit hash of which piece is on which square
+     */
+    public long getZobristKey() {
+        pieceBitboards();
+        return zobristKey;
+    }
+
+    /**
+     * Gets the piece counts packed four bits per piece type and color, in
+     * bitboard piece index order (see {@link Bitboards#pieceIndex}). Kept up
+     * to date by addPiece, so material questions don't need a board scan.
+     * Counts above 15 of one kind (impossible in a real game) overflow.
+     *
+     * @return the packed piece counts
+     */
+    public long getMaterialSignature() {
+        pieceBitboards();
+        return materialSignature;
+    }
+
+    /**
+     * @return how many pieces of this color and type are on the board
+     */
+    public int countPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return (int) (getMaterialSignature() >>> (Bitboards.pieceIndex(Bitboards.color(color), type) << 2)) & 0xF;
+    }
+
+    /**
+     * Fills the board from the piece placement field of a FEN string, which
+     * lists row 8 down to row 1 with digits for runs of empty squares. The
+     * squares are written directly and the bitboard index is rebuilt on its
+     * next use.
+     *
+     * @return index in fen just past the placement field
+     * @throws IllegalArgumentException if the placement isn't 8 rows of 8 squares
+     */
+    int readFenPlacement(String fen) {
+        for (int row = 0; row < 8; row++) {
+            Arrays.fill(ownRow(row), null);
+        }
+        int row = 7;
+        int col = 0;
+        int i = 0;
+        for (; i < fen.length(); i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw new IllegalArgumentException("Bad FEN placement: " + fen);
+                }
+                row--;
+                col = 0;
+            }
+            else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 8) {
+                    throw new IllegalArgumentException("Bad FEN placement: " + fen);
+                }
+            }
+            else {
+                int index = FEN_PIECES.indexOf(c);
+                if (index < 0 || col == 8) {
+                    throw new IllegalArgumentException("Bad FEN placement: " + fen);
                 }
+                squares[row][col++] = ChessPiece.of(index);
             }
         }
-        return null;
+        if (row != 0 || col != 8) {
+            throw new IllegalArgumentException("Bad FEN placement: " + fen);
+        }
+        pieceBitboards = null;
+        colorOccupancy = null;
+        return i;
     }
 
-    public Collection<ChessPosition> findAllPiecesOfColor(ChessGame.TeamColor color) {
-        ArrayList<ChessPosition> positions = new ArrayList<>();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPiece currentPiece = getPiece(new ChessPosition(row,col));
-                if (currentPiece != null && currentPiece.getTeamColor() == color) {
-                    positions.add(new ChessPosition(row,col));
+    /**
+     * Appends the FEN piece placement field for this board
+     */
+    void appendFenPlacement(StringBuilder fen) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (ChessPiece piece : squares[row]) {
+                if (piece == null) {
+                    empty++;
+                    continue;
                 }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(FEN_PIECES.charAt(Bitboards.pieceIndex(piece)));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
             }
         }
-        return positions;
+    }
+
+    long[] copyPieceBitboards() {
+        return pieceBitboards().clone();
+    }
+
+    long pieces(int pieceIndex) {
+        return pieceBitboards()[pieceIndex];
+    }
+
+    long occupancy(int color) {
+        pieceBitboards();
+        return colorOccupancy[color];
+    }
+
+    /**
+     * Returns the piece bitboards, building them from the squares on first use.
+     * Boards created by Gson only have their squares filled in, so the index
+     * can't be built eagerly in the constructor.
+     */
+    private long[] pieceBitboards() {
+        if (pieceBitboards == null) {
+            long[] pieces = new long[12];
+            long[] colors = new long[2];
+            long key = 0;
+            long material = 0;
+            for (int square = 0; square < 64; square++) {
+                ChessPiece piece = getPiece(square);
+                if (piece != null) {
+                    int index = Bitboards.pieceIndex(piece);
+                    pieces[index] |= 1L << square;
+                    colors[Bitboards.color(piece.getTeamColor())] |= 1L << square;
+                    key ^= Zobrist.piece(index, square);
+                    material += 1L << (index << 2);
+                }
+            }
+            colorOccupancy = colors;
+            zobristKey = key;
+            materialSignature = material;
+            pieceBitboards = pieces;
+            if (attackTracking) {
+                rebuildAttacks();
+            }
+        }
+        return pieceBitboards;
     }
 
     /**
@@ -84,10 +509,13 @@ public class ChessBoard {
     public void resetBoard() {
         //clear board
         for (int row = 0; row < 8; row++){
+            ChessPiece[] squaresInRow = ownRow(row);
             for (int col = 0; col < 8; col++){
-                squares[row][col] = null;
+                squaresInRow[col] = null;
             }
         }
+        pieceBitboards = null;
+        colorOccupancy = null;
 
         ChessGame.TeamColor white = ChessGame.TeamColor.WHITE;
         ChessPiece.PieceType rook = ChessPiece.PieceType.ROOK;
@@ -97,39 +525,39 @@ public class ChessBoard {
         ChessPiece.PieceType queen = ChessPiece.PieceType.QUEEN;
         ChessPiece.PieceType pawn = ChessPiece.PieceType.PAWN;
 
-        addPiece(new ChessPosition(1,1), new ChessPiece(white, rook));
-        addPiece(new ChessPosition(1,2), new ChessPiece(white, knight));
-        addPiece(new ChessPosition(1,3), new ChessPiece(white, bishop));
-        addPiece(new ChessPosition(1,4), new ChessPiece(white, queen));
-        addPiece(new ChessPosition(1,5), new ChessPiece(white, king));
-        addPiece(new ChessPosition(1,6), new ChessPiece(white, bishop));
-        addPiece(new ChessPosition(1,7), new ChessPiece(white, knight));
-        addPiece(new ChessPosition(1,8), new ChessPiece(white, rook));
-        addPiece(new ChessPosition(2,1), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,2), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,3), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,4), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,5), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,6), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,7), new ChessPiece(white, pawn));
-        addPiece(new ChessPosition(2,8), new ChessPiece(white, pawn));
+        addPiece(ChessPosition.of(1,1), ChessPiece.of(white, rook));
+        addPiece(ChessPosition.of(1,2), ChessPiece.of(white, knight));
+        addPiece(ChessPosition.of(1,3), ChessPiece.of(white, bishop));
+        addPiece(ChessPosition.of(1,4), ChessPiece.of(white, queen));
+        addPiece(ChessPosition.of(1,5), ChessPiece.of(white, king));
+        addPiece(ChessPosition.of(1,6), ChessPiece.of(white, bishop));
+        addPiece(ChessPosition.of(1,7), ChessPiece.of(white, knight));
+        addPiece(ChessPosition.of(1,8), ChessPiece.of(white, rook));
+        addPiece(ChessPosition.of(2,1), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,2), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,3), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,4), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,5), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,6), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,7), ChessPiece.of(white, pawn));
+        addPiece(ChessPosition.of(2,8), ChessPiece.of(white, pawn));
 
         ChessGame.TeamColor black = ChessGame.TeamColor.BLACK;
-        addPiece(new ChessPosition(8,1), new ChessPiece(black, rook));
-        addPiece(new ChessPosition(8,2), new ChessPiece(black, knight));
-        addPiece(new ChessPosition(8,3), new ChessPiece(black, bishop));
-        addPiece(new ChessPosition(8,4), new ChessPiece(black, queen));
-        addPiece(new ChessPosition(8,5), new ChessPiece(black, king));
-        addPiece(new ChessPosition(8,6), new ChessPiece(black, bishop));
-        addPiece(new ChessPosition(8,7), new ChessPiece(black, knight));
-        addPiece(new ChessPosition(8,8), new ChessPiece(black, rook));
-        addPiece(new ChessPosition(7,1), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,2), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,3), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,4), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,5), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,6), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,7), new ChessPiece(black, pawn));
-        addPiece(new ChessPosition(7,8), new ChessPiece(black, pawn));
+        addPiece(ChessPosition.of(8,1), ChessPiece.of(black, rook));
+        addPiece(ChessPosition.of(8,2), ChessPiece.of(black, knight));
+        addPiece(ChessPosition.of(8,3), ChessPiece.of(black, bishop));
+        addPiece(ChessPosition.of(8,4), ChessPiece.of(black, queen));
+        addPiece(ChessPosition.of(8,5), ChessPiece.of(black, king));
+        addPiece(ChessPosition.of(8,6), ChessPiece.of(black, bishop));
+        addPiece(ChessPosition.of(8,7), ChessPiece.of(black, knight));
+        addPiece(ChessPosition.of(8,8), ChessPiece.of(black, rook));
+        addPiece(ChessPosition.of(7,1), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,2), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,3), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,4), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,5), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,6), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,7), ChessPiece.of(black, pawn));
+        addPiece(ChessPosition.of(7,8), ChessPiece.of(black, pawn));
     }
 }
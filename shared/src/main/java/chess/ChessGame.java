@@ -1,5 +1,14 @@
 package chess;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -8,22 +17,400 @@ import java.util.*;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods. hiii
  */
+@JsonAdapter(ChessGame.TrimmedJson.class)
 public class ChessGame {
     private TeamColor turn = TeamColor.WHITE;
-    private ChessBoard board = new ChessBoard();
-
-    private boolean whiteKingMoved = false;
-    private boolean blackKingMoved = false;
-    private boolean whiteKingRookMoved = false;
-    private boolean whiteQueenRookMoved = false;
-    private boolean blackKingRookMoved = false;
-    private boolean blackQueenRookMoved = false;
+    private ChessBoard board;
+
+    //castling rights mask, one bit per king and side
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING_RIGHTS = 15;
+    private static final int NO_SQUARE = MoveGenerator.NO_SQUARE;
+
+    private int castlingRights = ALL_CASTLING_RIGHTS;
+    //square a pawn can capture onto en passant this move, or NO_SQUARE
+    private int enPassantSquare = NO_SQUARE;
     private boolean gameOver = false;
     private TeamColor winner = null;
     private boolean resigned = false;
 
+    //Zobrist key of the position before each move, oldest first, for repetition detection
+    private long[] positionHistory;
+    private int historySize = 0;
+    //plies since the last capture or pawn move; no position before that can repeat
+    private int halfmoveClock = 0;
+    //starts at 1 and goes up after each black move, as in FEN
+    private int fullmoveNumber = 1;
+    //16-bit code of every move played, oldest first (see ChessMove.toCode)
+    private short[] moveHistory = new short[0];
+    private int moveCount = 0;
+
+    //one packed entry per move made with doMove, see pushUndo
+    private transient long[] undoStack;
+    private transient int undoSize = 0;
+    //set when positionHistory, moveHistory and undoStack may belong to a copy too; see ownHistory
+    private transient boolean historyShared;
+    //undoSize after the move that makeMove ended the game with, or -1; taking that move back reopens the game
+    private transient int endedAtUndoSize = -1;
+
+    //status of the position with key cachedStatusKey, recomputed once the position changes
+    private transient GameStatus cachedStatus;
+    private transient long cachedStatusKey;
+    private transient int cachedStatusHistorySize;
+    //written only by the thread playing moves, read by anyone
+    private transient volatile Position publishedPosition;
+
     public ChessGame() {
+        board = new ChessBoard();
         board.resetBoard();
+        positionHistory = new long[32];
+        undoStack = new long[32];
+        publishedPosition = snapshot(board, turn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * Starts a game from a position with no move history, for positions read
+     * from FEN or unpacked from storage. All the state is set before the one
+     * snapshot is published.
+     */
+    ChessGame(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare, int halfmoveClock,
+              int fullmoveNumber) {
+        this.board = board;
+        this.turn = turn;
+        this.castlingRights = castlingRights & ALL_CASTLING_RIGHTS;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        positionHistory = new long[32];
+        undoStack = new long[32];
+        publishedPosition = snapshot(board, turn, this.castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    private ChessGame(ChessGame other) {
+        turn = other.turn;
+        board = other.board.copy();
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        gameOver = other.gameOver;
+        winner = other.winner;
+        resigned = other.resigned;
+        //both games share the history arrays until one of them plays a move
+        positionHistory = other.positionHistory;
+        historySize = other.historySize;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        moveHistory = other.moveHistory;
+        moveCount = other.moveCount;
+        undoStack = other.undoStack;
+        undoSize = other.undoSize;
+        historyShared = true;
+        other.historyShared = true;
+        endedAtUndoSize = other.endedAtUndoSize;
+        cachedStatus = other.cachedStatus;
+        cachedStatusKey = other.cachedStatusKey;
+        cachedStatusHistorySize = other.cachedStatusHistorySize;
+        publishedPosition = other.publishedPosition;
+    }
+
+    /**
+     * Writes games in Gson's usual field by field form, but from a copy whose
+     * position history holds only the keys a repetition can still match and
+     * whose move history holds only the moves played. Both are growable
+     * buffers, so writing them as they are would also write their spare
+     * capacity.
+     */
+    static final class TrimmedJson implements TypeAdapterFactory {
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != ChessGame.class) {
+                return null;
+            }
+            TypeAdapter<T> fields = gson.getDelegateAdapter(this, type);
+            return new TypeAdapter<>() {
+                @Override
+                public void write(JsonWriter out, T game) throws IOException {
+                    //T is ChessGame here, checked above
+                    @SuppressWarnings("unchecked")
+                    T trimmed = game == null ? null : (T) ((ChessGame) game).trimmedForJson();
+                    fields.write(out, trimmed);
+                }
+
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    T game = fields.read(in);
+                    if (game != null) {
+                        //the constructor published the starting position before Gson filled in the fields
+                        ((ChessGame) game).publish();
+                    }
+                    return game;
+                }
+            };
+        }
+    }
+
+    private ChessGame trimmedForJson() {
+        ChessGame trimmed = new ChessGame(this);
+        //no position from before the last capture or pawn move can repeat
+        int keys = Math.min(historySize, halfmoveClock);
+        trimmed.positionHistory = Arrays.copyOfRange(positionHistory, historySize - keys, historySize);
+        trimmed.historySize = keys;
+        trimmed.moveHistory = Arrays.copyOf(moveHistory, moveCount);
+        return trimmed;
+    }
+
+    /**
+     * Copies the game, including its move history and moves that can still
+     * be undone. The history arrays and board rows are shared until either
+     * game changes them, the bitboards are copied flat and pieces, which are
+     * immutable, are shared, so this is much cheaper than a round trip
+     * through Gson. Copying marks this game's arrays as shared too, so it
+     * must not run while another thread plays moves on this game.
+     *
+     * @return an independent game in the same state
+     */
+    public ChessGame copy() {
+        return new ChessGame(this);
+    }
+
+    ChessGame(CompactGame compact) {
+        board = compact.board();
+        turn = compact.getTeamTurn();
+        castlingRights = compact.castlingRights();
+        enPassantSquare = compact.enPassantSquare();
+        gameOver = compact.isGameOver();
+        resigned = compact.isResigned();
+        winner = compact.winner();
+        long[] keys = compact.repetitionKeys();
+        positionHistory = Arrays.copyOf(keys, Math.max(keys.length, 16));
+        historySize = keys.length;
+        halfmoveClock = compact.getHalfmoveClock();
+        fullmoveNumber = compact.getFullmoveNumber();
+        short[] moves = compact.moveHistory();
+        moveHistory = Arrays.copyOf(moves, Math.max(moves.length, 16));
+        moveCount = moves.length;
+        undoStack = new long[16];
+        publish();
+    }
+
+    /**
+     * Packs the game into its compact idle form. Only the positions a
+     * repetition could still match are kept, and moves made so far can't be
+     * undone once the game is expanded again.
+     *
+     * @return the game as a {@link CompactGame}
+     */
+    public CompactGame compact() {
+        int keys = Math.min(historySize, halfmoveClock);
+        return new CompactGame(board, turn, castlingRights, enPassantSquare, gameOver, resigned, winner,
+                halfmoveClock, fullmoveNumber, Arrays.copyOfRange(positionHistory, historySize - keys, historySize),
+                Arrays.copyOf(moveHistory, moveCount));
+    }
+
+    /**
+     * Estimates the heap this game takes, board and caches included, for
+     * comparing with {@link CompactGame#residentBytes()}
+     *
+     * @return approximate bytes on a 64-bit JVM with compressed references
+     */
+    public long residentBytes() {
+        long bytes = Footprint.object(Footprint.fieldBytes(ChessGame.class))
+                + Footprint.array(positionHistory.length, 8)
+                + Footprint.array(moveHistory.length, 2)
+                + Footprint.array(undoStack.length, 8)
+                + board.residentBytes();
+        if (cachedStatus != null) {
+            bytes += Footprint.object(Footprint.fieldBytes(GameStatus.class));
+        }
+        if (publishedPosition != null) {
+            bytes += Footprint.object(Footprint.fieldBytes(Position.class)) + Footprint.array(12, 8);
+        }
+        return bytes;
+    }
+
+    public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Creates a game from a FEN string: piece placement, side to move,
+     * castling rights, en passant square, halfmove clock and fullmove number.
+     * All six fields are required. An en passant square must be on the rank
+     * the side to move captures onto, and is only kept if a pawn can actually
+     * capture onto it.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return a game in that position with no move history
+     * @throws IllegalArgumentException if fen can't be parsed or is missing a field
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int i = board.readFenPlacement(fen);
+
+        i = nextField(fen, i, "side to move");
+        if (fen.charAt(i) != 'w' && fen.charAt(i) != 'b') {
+            throw new IllegalArgumentException("Bad FEN side to move: " + fen);
+        }
+        TeamColor turn = fen.charAt(i++) == 'w' ? TeamColor.WHITE : TeamColor.BLACK;
+
+        i = nextField(fen, i, "castling rights");
+        int rights = 0;
+        if (fen.charAt(i) == '-') {
+            i++;
+        }
+        else {
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                switch (fen.charAt(i)) {
+                    case 'K' -> rights |= WHITE_KINGSIDE;
+                    case 'Q' -> rights |= WHITE_QUEENSIDE;
+                    case 'k' -> rights |= BLACK_KINGSIDE;
+                    case 'q' -> rights |= BLACK_QUEENSIDE;
+                    default -> throw new IllegalArgumentException("Bad FEN castling rights: " + fen);
+                }
+            }
+        }
+
+        i = nextField(fen, i, "en passant square");
+        int enPassantSquare = NO_SQUARE;
+        if (fen.charAt(i) == '-') {
+            i++;
+        }
+        else {
+            //white captures onto rank 6 and black onto rank 3
+            char rank = turn == TeamColor.WHITE ? '6' : '3';
+            if (i + 1 >= fen.length() || fen.charAt(i) < 'a' || fen.charAt(i) > 'h' || fen.charAt(i + 1) != rank) {
+                throw new IllegalArgumentException("Bad FEN en passant square: " + fen);
+            }
+            int square = Bitboards.square(fen.charAt(i + 1) - '0', fen.charAt(i) - 'a' + 1);
+            int color = Bitboards.color(turn);
+            if ((Attacks.pawn(color ^ 1, square) & board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.PAWN))) != 0) {
+                enPassantSquare = square;
+            }
+            i += 2;
+        }
+
+        i = nextField(fen, i, "halfmove clock");
+        int end = fen.indexOf(' ', i);
+        end = end < 0 ? fen.length() : end;
+        int halfmoveClock = parseFenNumber(fen, i, end);
+        i = nextField(fen, end, "fullmove number");
+        int fullmoveNumber = Math.max(1, parseFenNumber(fen, i, fen.length()));
+        return new ChessGame(board, turn, rights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    private static int skipSpaces(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int nextField(String fen, int i, String field) {
+        int start = skipSpaces(fen, i);
+        if (start == i || start >= fen.length()) {
+            throw new IllegalArgumentException("FEN is missing the " + field + ": " + fen);
+        }
+        return start;
+    }
+
+    private static int parseFenNumber(String fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw new IllegalArgumentException("Bad FEN move counter: " + fen);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Bad FEN move counter: " + fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Writes the position as a FEN string, the format {@link #fromFen} reads
+     *
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return toFen(board, turn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    static String toFen(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare,
+                        int halfmoveClock, int fullmoveNumber) {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendFenPlacement(fen);
+        fen.append(turn == TeamColor.WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        }
+        else {
+            if ((castlingRights & WHITE_KINGSIDE) != 0) {
+                fen.append('K');
+            }
+            if ((castlingRights & WHITE_QUEENSIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((castlingRights & BLACK_KINGSIDE) != 0) {
+                fen.append('k');
+            }
+            if ((castlingRights & BLACK_QUEENSIDE) != 0) {
+                fen.append('q');
+            }
+        }
+        fen.append(' ');
+        if (enPassantSquare == NO_SQUARE) {
+            fen.append('-');
+        }
+        else {
+            fen.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    /**
+     * @return the move number, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Takes an immutable copy of the current position. Call it from the
+     * thread that is playing moves; the copy can then go to any thread.
+     *
+     * @return snapshot of the position as it is now
+     */
+    public Position snapshot() {
+        return snapshot(board, turn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    //static so that constructors can publish without handing out this
+    private static Position snapshot(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare,
+                                     int halfmoveClock, int fullmoveNumber) {
+        return new Position(board.copyPieceBitboards(), zobristKey(board, turn, castlingRights, enPassantSquare),
+                turn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * Gets the snapshot published by the last {@link #makeMove} or state
+     * setter, so readers on other threads can look at the game without
+     * locking it while one thread keeps playing moves. Snapshots are only
+     * ever taken by the thread changing the game; readers do nothing but
+     * this volatile read. Moves played with doMove/undoMove aren't published.
+     *
+     * @return the latest published position
+     */
+    public Position getPosition() {
+        return publishedPosition;
+    }
+
+    /**
+     * Takes a snapshot and makes it the one {@link #getPosition()} returns
+     */
+    private void publish() {
+        publishedPosition = snapshot();
     }
 
     public void resign(TeamColor color) throws InvalidMoveException {
@@ -35,23 +422,76 @@ public class ChessGame {
         this.winner = (color == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
+    /**
+     * Determines if a player may claim a draw: the position has occurred
+     * three times, or fifty moves by each side have passed without a capture
+     * or pawn move. Unlike fivefold repetition and the seventy-five-move
+     * rule, these don't end the game on their own.
+     *
+     * @return True if the game is still going and a draw can be claimed
+     */
+    public boolean canClaimDraw() {
+        return !gameOver && (isThreefoldRepetition() || isFiftyMoveRule());
+    }
+
+    /**
+     * Reads the castling rights rather than the move history, so this is
+     * also true once white has lost both rights another way, for example
+     * when both rooks have been captured.
+     *
+     * @return True if white can no longer castle on either side
+     */
     public boolean hasWhiteKingMoved() {
-        return whiteKingMoved;
+        return (castlingRights & (WHITE_KINGSIDE | WHITE_QUEENSIDE)) == 0;
     }
+
+    /**
+     * Reads the castling rights, like {@link #hasWhiteKingMoved()}.
+     *
+     * @return True if black can no longer castle on either side
+     */
     public boolean hasBlackKingMoved() {
-        return blackKingMoved;
+        return (castlingRights & (BLACK_KINGSIDE | BLACK_QUEENSIDE)) == 0;
     }
+
+    /**
+     * Reads the castling rights, so a rook captured on its starting square
+     * counts as moved.
+     *
+     * @return True if white can no longer castle kingside
+     */
     public boolean hasWhiteKingRookMoved() {
-        return whiteKingRookMoved;
+        return (castlingRights & WHITE_KINGSIDE) == 0;
     }
+
+    /**
+     * Reads the castling rights, so a rook captured on its starting square
+     * counts as moved.
+     *
+     * @return True if black can no longer castle kingside
+     */
     public boolean hasBlackKingRookMoved() {
-        return blackKingRookMoved;
+        return (castlingRights & BLACK_KINGSIDE) == 0;
     }
+
+    /**
+     * Reads the castling rights, so a rook captured on its starting square
+     * counts as moved.
+     *
+     * @return True if white can no longer castle queenside
+     */
     public boolean hasWhiteQueenRookMoved() {
-        return whiteQueenRookMoved;
+        return (castlingRights & WHITE_QUEENSIDE) == 0;
     }
+
+    /**
+     * Reads the castling rights, so a rook captured on its starting square
+     * counts as moved.
+     *
+     * @return True if black can no longer castle queenside
+     */
     public boolean hasBlackQueenRookMoved() {
-        return blackQueenRookMoved;
+        return (castlingRights & BLACK_QUEENSIDE) == 0;
     }
 
     /**
@@ -72,6 +512,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         turn = team;
+        publish();
     }
 
     public boolean isGameOver() {
@@ -102,7 +543,50 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(turn, board);
+        return Long.hashCode(board.getZobristKey() ^ (turn == TeamColor.BLACK ? Zobrist.BLACK_TO_MOVE : 0));
+    }
+
+    /**
+     * Gets a 64-bit key for the current position: piece placement, side to
+     * move, castling rights and en passant file. The board part is kept up
+     * to date as pieces move, so this costs a few XORs rather than a walk
+     * over the board.
+     *
+     * @return Zobrist key of the position
+     */
+    public long getZobristKey() {
+        return zobristKey(board, turn, castlingRights, enPassantSquare);
+    }
+
+    private static long zobristKey(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare) {
+        return board.getZobristKey()
+                ^ (turn == TeamColor.BLACK ? Zobrist.BLACK_TO_MOVE : 0)
+                ^ Zobrist.castling(castlingRights)
+                ^ (enPassantSquare == NO_SQUARE ? 0 : Zobrist.enPassant(enPassantSquare));
+    }
+
+    /**
+     * @return castling rights still available, as a mask of {@link #WHITE_KINGSIDE},
+     * {@link #WHITE_QUEENSIDE}, {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+     */
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return square the side to move can capture onto en passant, or 64 if there isn't one
+     */
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Adds the legal moves, including castling and en passant, for the pieces
+     * of a color standing on {@code fromMask}
+     */
+    void legalMoves(int color, long fromMask, MoveList moves) {
+        MoveGenerator.legalMoves(board, color, fromMask, castlingRights,
+                color == Bitboards.color(turn) ? enPassantSquare : NO_SQUARE, moves);
     }
 
     /**
@@ -117,53 +601,62 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> moves = piece.pieceMoves(board,startPosition);
-
-        Iterator<ChessMove> iterator = moves.iterator();
-        while (iterator.hasNext()) {
-            ChessMove move = iterator.next();
-            ChessPosition startPos = move.getStartPosition();
-            ChessPosition endPos = move.getEndPosition();
-            ChessPiece.PieceType promotion = move.getPromotionPiece();
-
-            //see if a piece is at endPos
-            ChessPiece captured = board.getPiece(endPos);
-            //execute move
-            board.addPiece(startPos, null);
-            if (promotion == null) {
-                board.addPiece(endPos, piece);
-            }
-            else {
-                board.addPiece(endPos, new ChessPiece(piece.getTeamColor(), promotion));
-            }
-
-            //check for check
-            boolean removeFromList = false;
-            if (isInCheck(piece.getTeamColor())) {
-                removeFromList = true;
-            }
+        MoveList moves = new MoveList(32);
+        legalMoves(Bitboards.color(piece.getTeamColor()), Bitboards.bit(Bitboards.square(startPosition)), moves);
+        return moves.toChessMoves();
+    }
 
-            //revert the board back to normal
-            if (captured == null) {
-                board.addPiece(endPos, null);
-            }
-            else {
-                board.addPiece(endPos, captured);
-            }
+    /**
+     * Gets every legal move for the side to move in one pass. Checkers and
+     * pins are worked out once for the whole side instead of once per piece
+     * as calling {@link #validMoves} on every square would.
+     *
+     * @return all legal moves for the team whose turn it is
+     */
+    public Collection<ChessMove> legalMoves() {
+        MoveList moves = new MoveList();
+        legalMoves(moves);
+        return moves.toChessMoves();
+    }
 
-            board.addPiece(startPos, piece);
+    /**
+     * Adds every legal move for the side to move as packed ints (see
+     * {@link Move}), so a caller that reuses its list doesn't allocate
+     *
+     * @param moves list the moves are added to
+     * @return number of moves added
+     */
+    public int legalMoves(MoveList moves) {
+        int start = moves.size();
+        legalMoves(Bitboards.color(turn), -1L, moves);
+        return moves.size() - start;
+    }
 
-            //remove if in check
-            if (removeFromList) {
-                iterator.remove();
-            }
+    /**
+     * Checks whether a single move is legal for the piece on its start
+     * square, without generating that piece's other moves. Gives the same
+     * answer as looking the move up in {@link #validMoves}.
+     *
+     * @param move the move to check
+     * @return True if the move can be played
+     */
+    public boolean isLegal(ChessMove move) {
+        if (!Bitboards.isOnBoard(move.getStartPosition()) || !Bitboards.isOnBoard(move.getEndPosition())) {
+            return false;
         }
-
-        return moves;
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            return false;
+        }
+        int color = Bitboards.color(piece.getTeamColor());
+        return MoveGenerator.isLegal(board, color, Move.fromChessMove(move), castlingRights,
+                color == Bitboards.color(turn) ? enPassantSquare : NO_SQUARE);
     }
 
+
     /**
-     * Makes a move in a chess game
+     * Makes a move in a chess game. If the move checkmates, stalemates or
+     * reaches an automatic draw, the game is over.
      *
      * @param move chess move to perform
      * @throws InvalidMoveException if move is invalid
@@ -171,28 +664,19 @@ public class ChessGame {
     public void makeMove(ChessMove move) throws InvalidMoveException {
 
         ChessPosition startPos = move.getStartPosition();
-        ChessPosition endPos = move.getEndPosition();
-        ChessPiece.PieceType promotion = move.getPromotionPiece();
-
+        if (!Bitboards.isOnBoard(startPos) || !Bitboards.isOnBoard(move.getEndPosition())) {
+            throw new InvalidMoveException("Not a valid move");
+        }
         ChessPiece piece = board.getPiece(startPos);
 
         //make sure move is valid
         if (piece != null && piece.getTeamColor() != getTeamTurn()) {
             throw new InvalidMoveException("It's not your turn");
         }
-
-        Collection<ChessMove> validMoves = validMoves(startPos);
-        boolean throwException = true;
-        if (validMoves == null) {
+        if (piece == null) {
             throw new InvalidMoveException("No valid moves");
         }
-        for (ChessMove validMove : validMoves) {
-            if (validMove.equals(move)) {
-                throwException = false;
-            }
-        }
-        if (throwException) {
-
+        if (!isLegal(move)) {
             throw new InvalidMoveException("Not a valid move");
         }
 
@@ -200,91 +684,396 @@ public class ChessGame {
             throw new InvalidMoveException("Game is over. No more moves allowed.");
         }
 
-        //execute move
-        board.addPiece(startPos, null);
-        if (promotion == null) {
-            board.addPiece(endPos, piece);
+        doMove(Move.fromChessMove(move));
+        //checkmate, stalemate and the automatic draws all end the game here
+        GameStatus status = getStatus();
+        if (status.isGameOver()) {
+            gameOver = true;
+            winner = status.isDraw() ? null : piece.getTeamColor();
+            endedAtUndoSize = undoSize;
+        }
+        publish();
+    }
+
+    /**
+     * Plays a move without checking that it's legal, remembering enough to
+     * take it back with {@link #undoMove()}. Used for legality testing and
+     * replaying moves that are already known to be valid.
+     *
+     * @param move chess move to perform
+     */
+    public void doMove(ChessMove move) {
+        doMove(Move.fromChessMove(move));
+    }
+
+    /**
+     * Plays a packed move (see {@link Move}) without checking that it's legal.
+     * A king moving two squares castles and a pawn moving onto the en passant
+     * square captures en passant, so moves packed from a ChessMove without
+     * flags are played correctly too.
+     */
+    public void doMove(int move) {
+        int startSquare = Move.from(move);
+        int endSquare = Move.to(move);
+        ChessPiece piece = board.getPiece(startSquare);
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (type == ChessPiece.PieceType.KING && Math.abs(endSquare - startSquare) == 2) {
+            move |= Move.CASTLE;
+        }
+        else if (type == ChessPiece.PieceType.PAWN && endSquare == enPassantSquare
+                && (startSquare & 7) != (endSquare & 7)) {
+            move |= Move.EN_PASSANT | Move.CAPTURE;
+        }
+        int capturedSquare = Move.hasFlag(move, Move.EN_PASSANT) ? enPassantCaptureSquare(startSquare, endSquare) : endSquare;
+        ChessPiece captured = board.getPiece(capturedSquare);
+        if (historyShared) {
+            ownHistory();
+        }
+        pushUndo(move, captured);
+        pushHistory(getZobristKey());
+        if (moveCount == moveHistory.length) {
+            moveHistory = Arrays.copyOf(moveHistory, Math.max(moveCount * 2, 16));
+        }
+        moveHistory[moveCount++] = Move.toCode(move);
+        if (captured != null || type == ChessPiece.PieceType.PAWN) {
+            halfmoveClock = 0;
         }
         else {
-            board.addPiece(endPos, new ChessPiece(piece.getTeamColor(), promotion));
+            halfmoveClock++;
+        }
+        if (piece.getTeamColor() == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
 
-        //set flags for castling
-        if (piece.getPieceType() == ChessPiece.PieceType.ROOK && startPos.getRow() == 1 && startPos.getColumn() == 1) {
-            whiteQueenRookMoved = true;
-         }
-        else if (piece.getPieceType() == ChessPiece.PieceType.ROOK && startPos.getRow() == 1 && startPos.getColumn() == 8) {
-            whiteKingRookMoved = true;
+        //execute move
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        board.setPiece(startSquare, null);
+        if (capturedSquare != endSquare) {
+            board.setPiece(capturedSquare, null);
         }
-        else if (piece.getPieceType() == ChessPiece.PieceType.ROOK && startPos.getRow() == 8 && startPos.getColumn() == 1) {
-            blackQueenRookMoved = true;
+        if (promotion == null) {
+            board.setPiece(endSquare, piece);
         }
-        else if (piece.getPieceType() == ChessPiece.PieceType.ROOK && startPos.getRow() == 8 && startPos.getColumn() == 8) {
-            blackKingRookMoved = true;
+        else {
+            board.setPiece(endSquare, ChessPiece.of(piece.getTeamColor(), promotion));
         }
-        else if (piece.getPieceType() == ChessPiece.PieceType.KING && startPos.getRow() == 1 && startPos.getColumn() == 5) {
-            whiteKingMoved = true;
+        if (Move.hasFlag(move, Move.CASTLE)) {
+            int rookStart = castlingRookStart(startSquare, endSquare);
+            int rookEnd = (startSquare + endSquare) >>> 1;
+            board.setPiece(rookEnd, board.getPiece(rookStart));
+            board.setPiece(rookStart, null);
         }
-        else if (piece.getPieceType() == ChessPiece.PieceType.KING && startPos.getRow() == 8 && startPos.getColumn() == 5) {
-            blackKingMoved = true;
+
+        //a king or rook leaving its square, or a rook being captured on it, loses those rights
+        castlingRights &= CASTLING_RIGHTS_KEPT[startSquare] & CASTLING_RIGHTS_KEPT[endSquare];
+
+        //only remember the en passant square if a pawn could actually capture there,
+        //so positions that differ only by an unusable square still repeat
+        enPassantSquare = NO_SQUARE;
+        if (type == ChessPiece.PieceType.PAWN && Math.abs(endSquare - startSquare) == 16) {
+            int passed = (startSquare + endSquare) >>> 1;
+            int color = Bitboards.color(piece.getTeamColor());
+            if ((Attacks.pawn(color, passed) & board.pieces(Bitboards.pieceIndex(color ^ 1, type))) != 0) {
+                enPassantSquare = passed;
+            }
         }
 
         //update turn
-        TeamColor opposingColor;
-        if (piece.getTeamColor() == TeamColor.WHITE) {
-            opposingColor = TeamColor.BLACK;
+        turn = piece.getTeamColor() == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(int)} or {@link #makeMove(ChessMove)}.
+     * If that move ended the game, the game is back on.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        if (endedAtUndoSize == undoSize) {
+            gameOver = false;
+            winner = null;
+            endedAtUndoSize = -1;
+        }
+        long entry = undoStack[--undoSize];
+        int move = (int) (entry & UNDO_MOVE_MASK);
+        int startSquare = Move.from(move);
+        int endSquare = Move.to(move);
+
+        ChessPiece piece = board.getPiece(endSquare);
+        if (Move.isPromotion(move)) {
+            piece = ChessPiece.of(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        board.setPiece(startSquare, piece);
+        if (piece.getTeamColor() == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+        int capturedCode = (int) (entry >>> UNDO_CAPTURED_SHIFT) & 0xF;
+        ChessPiece captured = capturedCode == 0 ? null : ChessPiece.of(capturedCode - 1);
+        if (Move.hasFlag(move, Move.EN_PASSANT)) {
+            board.setPiece(endSquare, null);
+            board.setPiece(enPassantCaptureSquare(startSquare, endSquare), captured);
         }
         else {
-            opposingColor = TeamColor.WHITE;
+            board.setPiece(endSquare, captured);
         }
+        if (Move.hasFlag(move, Move.CASTLE)) {
+            int rookStart = castlingRookStart(startSquare, endSquare);
+            int rookEnd = (startSquare + endSquare) >>> 1;
+            board.setPiece(rookStart, board.getPiece(rookEnd));
+            board.setPiece(rookEnd, null);
+        }
+
+        castlingRights = (int) (entry >>> UNDO_CASTLING_SHIFT) & ALL_CASTLING_RIGHTS;
+        enPassantSquare = (int) (entry >>> UNDO_EN_PASSANT_SHIFT) & 0x7F;
+        turn = (entry & UNDO_BLACK_TO_MOVE) != 0 ? TeamColor.BLACK : TeamColor.WHITE;
+        halfmoveClock = (int) (entry >>> UNDO_CLOCK_SHIFT) & 0xFFFF;
+        if (historySize > 0) {
+            historySize--;
+        }
+        if (moveCount > 0) {
+            moveCount--;
+        }
+    }
+
+    private static int enPassantCaptureSquare(int startSquare, int endSquare) {
+        //the captured pawn is beside the capturing one, on the file it moves to
+        return (startSquare & ~7) | (endSquare & 7);
+    }
+
+    private static int castlingRookStart(int kingStart, int kingEnd) {
+        return kingEnd > kingStart ? kingStart + 3 : kingStart - 4;
+    }
 
-        setTeamTurn(opposingColor);
+    //castling rights that survive a move from or to each square
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_RIGHTS_KEPT, ALL_CASTLING_RIGHTS);
+        CASTLING_RIGHTS_KEPT[Bitboards.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[Bitboards.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[Bitboards.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[Bitboards.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[Bitboards.square(8, 8)] &= ~BLACK_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[Bitboards.square(8, 1)] &= ~BLACK_QUEENSIDE;
+    }
+
+    //undo entry layout: move in bits 0-19, captured piece index + 1 in bits 20-23,
+    //castling rights in bits 24-27, whose turn it was in bit 30, halfmove clock in bits 32-47,
+    //en passant square in bits 48-54
+    private static final long UNDO_MOVE_MASK = (1L << 20) - 1;
+    private static final int UNDO_CAPTURED_SHIFT = 20;
+    private static final int UNDO_CASTLING_SHIFT = 24;
+    private static final long UNDO_BLACK_TO_MOVE = 1L << 30;
+    private static final int UNDO_CLOCK_SHIFT = 32;
+    private static final int UNDO_EN_PASSANT_SHIFT = 48;
+
+    private void pushUndo(int move, ChessPiece captured) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+        }
+        long capturedCode = captured == null ? 0 : Bitboards.pieceIndex(captured) + 1;
+        undoStack[undoSize++] = (move & UNDO_MOVE_MASK)
+                | (capturedCode << UNDO_CAPTURED_SHIFT)
+                | ((long) castlingRights << UNDO_CASTLING_SHIFT)
+                | (turn == TeamColor.BLACK ? UNDO_BLACK_TO_MOVE : 0)
+                | ((long) Math.min(halfmoveClock, 0xFFFF) << UNDO_CLOCK_SHIFT)
+                | ((long) enPassantSquare << UNDO_EN_PASSANT_SHIFT);
     }
 
     /**
-     * Determines if the given team is in check
-     *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * Clones the history arrays this game shares with a copy, before the
+     * first move that writes to them
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPos = board.findPiece(ChessPiece.PieceType.KING, teamColor);
-        Collection<ChessPosition> opponentPositions;
-        if (teamColor == TeamColor.WHITE) {
-            opponentPositions = board.findAllPiecesOfColor(TeamColor.BLACK);
+    private void ownHistory() {
+        positionHistory = Arrays.copyOf(positionHistory, Math.max(historySize + 1, 16));
+        moveHistory = Arrays.copyOf(moveHistory, Math.max(moveCount + 1, 16));
+        undoStack = Arrays.copyOf(undoStack, Math.max(undoSize + 1, 16));
+        historyShared = false;
+    }
+
+    private void pushHistory(long key) {
+        if (historySize == positionHistory.length) {
+            positionHistory = Arrays.copyOf(positionHistory, Math.max(historySize * 2, 16));
         }
-        else {
-            opponentPositions = board.findAllPiecesOfColor(TeamColor.WHITE);
+        positionHistory[historySize++] = key;
+    }
+
+    /**
+     * @return number of moves played in this game, counting each side's moves separately
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @param ply index of the move, 0 for the first move
+     * @return the move played at that ply
+     */
+    public ChessMove getMove(int ply) {
+        if (ply < 0 || ply >= moveCount) {
+            throw new IndexOutOfBoundsException("No move " + ply + " in a game of " + moveCount);
         }
-        for (ChessPosition pos : opponentPositions) {
-            ChessPiece piece = board.getPiece(pos);
-            Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-            for (ChessMove move : moves) {
-                ChessPosition endPos = move.getEndPosition();
-                if (endPos.equals(kingPos)) {
-                    return true;
-                }
+        return ChessMove.fromCode(moveHistory[ply]);
+    }
+
+    /**
+     * Gets the moves played so far as 16-bit codes, two bytes per move. With
+     * the starting position that is a complete record of the game.
+     *
+     * @return a copy of the move codes, oldest first
+     */
+    public short[] getMoveHistory() {
+        return Arrays.copyOf(moveHistory, moveCount);
+    }
+
+    /**
+     * Replays a move history from the standard starting position
+     *
+     * @param moveCodes 16-bit move codes, oldest first
+     * @return the game after those moves
+     * @throws InvalidMoveException if any of the codes is malformed or its move isn't legal
+     */
+    public static ChessGame fromMoveHistory(short[] moveCodes) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (short code : moveCodes) {
+            ChessMove move;
+            try {
+                move = ChessMove.fromCode(code);
             }
+            catch (IllegalArgumentException e) {
+                throw new InvalidMoveException(e.getMessage());
+            }
+            game.makeMove(move);
         }
-        return false;
+        return game;
     }
 
-    public boolean isInCheckAfterMove(ChessMove move, TeamColor color) {
-        ChessPosition startPos = move.getStartPosition();
-        ChessPosition endPos =  move.getEndPosition();
-        ChessPiece king = board.getPiece(startPos);
-        ChessPiece captured = board.getPiece(endPos);
+    /**
+     * Counts how many times the current position has occurred, including now.
+     * Only positions since the last capture or pawn move can match, and only
+     * every other one has the same side to move, so the scan stops early.
+     *
+     * @return number of occurrences of the current position, at least 1
+     */
+    public int getRepetitionCount() {
+        long key = getZobristKey();
+        int count = 1;
+        int oldest = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (positionHistory[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Sets the plies since the last capture or pawn move, for positions set
+     * up part way through a game
+     *
+     * @param halfmoveClock the number of plies
+     */
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+        //the key doesn't cover the clock, but the seventy-five-move rule reads it
+        cachedStatus = null;
+        publish();
+    }
+
+    /**
+     * @return True if fifty moves by each side have passed without a capture or pawn move
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
 
-        board.addPiece(startPos, null);
-        board.addPiece(endPos, king);
+    /**
+     * @return True if seventy-five moves by each side have passed without a capture or pawn move
+     */
+    public boolean isSeventyFiveMoveRule() {
+        return halfmoveClock >= 150;
+    }
 
-        boolean isInCheck = false;
-        if (isInCheck(color)) {
-            isInCheck = true;
+    /**
+     * Determines if neither side has enough material left to ever checkmate:
+     * king against king, a lone minor piece against a king, or only bishops
+     * that all stand on the same color of square. Reads the board's material
+     * signature, so it costs a few masks rather than a board scan.
+     *
+     * @return True if the position is a dead draw on material
+     */
+    public boolean hasInsufficientMaterial() {
+        long material = board.getMaterialSignature();
+        if ((material & MAJOR_PIECES_AND_PAWNS) != 0) {
+            return false;
         }
+        int knights = board.countPieces(TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)
+                + board.countPieces(TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        int bishops = board.countPieces(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                + board.countPieces(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        if (knights + bishops <= 1) {
+            return true;
+        }
+        if (knights > 0) {
+            return false;
+        }
+        long allBishops = board.pieces(Bitboards.pieceIndex(Bitboards.WHITE, ChessPiece.PieceType.BISHOP))
+                | board.pieces(Bitboards.pieceIndex(Bitboards.BLACK, ChessPiece.PieceType.BISHOP));
+        return (allBishops & Bitboards.LIGHT_SQUARES) == 0 || (allBishops & ~Bitboards.LIGHT_SQUARES) == 0;
+    }
+
+    //material signature nibbles for queens, rooks and pawns of both colors
+    private static final long MAJOR_PIECES_AND_PAWNS = materialMask(ChessPiece.PieceType.QUEEN)
+            | materialMask(ChessPiece.PieceType.ROOK) | materialMask(ChessPiece.PieceType.PAWN);
+
+    private static long materialMask(ChessPiece.PieceType type) {
+        return (0xFL << (Bitboards.pieceIndex(Bitboards.WHITE, type) << 2))
+                | (0xFL << (Bitboards.pieceIndex(Bitboards.BLACK, type) << 2));
+    }
+
+    /**
+     * @return True if the current position has now occurred at least three times
+     */
+    public boolean isThreefoldRepetition() {
+        return getRepetitionCount() >= 3;
+    }
 
-        board.addPiece(startPos, king);
-        board.addPiece(endPos, captured);
+    /**
+     * @return True if the current position has now occurred at least five times
+     */
+    public boolean isFivefoldRepetition() {
+        return getRepetitionCount() >= 5;
+    }
+
+    /**
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        int color = Bitboards.color(teamColor);
+        int kingSquare = board.kingSquare(color);
+        return kingSquare < 64 && board.isSquareAttacked(kingSquare, color ^ 1);
+    }
+
+    public boolean isInCheckAfterMove(ChessMove move, TeamColor color) {
+        if (board.getPiece(move.getStartPosition()) == null) {
+            return isInCheck(color);
+        }
+        doMove(move);
+        boolean isInCheck = isInCheck(color);
+        undoMove();
 
         return isInCheck;
     }
@@ -299,7 +1088,7 @@ public class ChessGame {
         int min = Math.min(rookCol, kingCol);
         int max = Math.max(rookCol, kingCol);
         for (int i = min+1; i < max; i++) {
-            ChessPosition pos = new ChessPosition(kingPos.getRow(), i);
+            ChessPosition pos = ChessPosition.of(kingPos.getRow(), i);
             ChessPiece piece = board.getPiece(pos);
             if (piece != null) {
                 positions.add(pos);
@@ -310,49 +1099,11 @@ public class ChessGame {
     }
 
     public boolean canCastleKingsSide(TeamColor color) {
-        if (color == TeamColor.WHITE) {
-            ChessPosition kingPos = new ChessPosition(1, 5);
-            ChessPosition rookPos = new ChessPosition(1, 8);
-            if (whiteKingMoved || whiteKingRookMoved || !getPiecesBetween(kingPos, rookPos).isEmpty()
-                    || isInCheck(color) || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(1, 6), null), color)
-                    || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(1, 7), null), color)) {
-                return false;
-            }
-        }
-        else {
-            ChessPosition kingPos = new ChessPosition(8, 5);
-            ChessPosition rookPos = new ChessPosition(8, 8);
-            if (blackKingMoved || blackKingRookMoved || !getPiecesBetween(kingPos, rookPos).isEmpty()
-                    || isInCheck(color) || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(8, 6), null), color)
-                    || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(8, 7), null), color)) {
-                return false;
-            }
-        }
-
-        return true;
+        return MoveGenerator.canCastle(board, Bitboards.color(color), castlingRights, true);
     }
 
     public boolean canCastleQueensSide(TeamColor color) {
-        if (color == TeamColor.WHITE) {
-            ChessPosition kingPos = new ChessPosition(1, 5);
-            ChessPosition rookPos = new ChessPosition(1, 1);
-            if (whiteKingMoved || whiteQueenRookMoved || !getPiecesBetween(kingPos, rookPos).isEmpty()
-                    || isInCheck(color) || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(1, 4), null), color)
-                    || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(1, 3), null), color)) {
-                return false;
-            }
-        }
-        else {
-            ChessPosition kingPos = new ChessPosition(8, 5);
-            ChessPosition rookPos = new ChessPosition(8, 1);
-            if (blackKingMoved || blackQueenRookMoved || !getPiecesBetween(kingPos, rookPos).isEmpty()
-                    || isInCheck(color) || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(8, 4), null), color)
-                    || isInCheckAfterMove(new ChessMove(kingPos, new ChessPosition(8, 3), null), color)) {
-                return false;
-            }
-        }
-
-        return true;
+        return MoveGenerator.canCastle(board, Bitboards.color(color), castlingRights, false);
     }
 
     /**
@@ -362,23 +1113,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        //get all pieces of this team
-        //loop thru
-        //check valid moves of each piece
-        //if valid moves aren't empty -> return false
-
-        Collection<ChessPosition> positions = board.findAllPiecesOfColor(teamColor);
-        for (ChessPosition pos : positions) {
-            Collection<ChessMove> validMoves = validMoves(pos);
-            if (!validMoves.isEmpty()){
-                return false;
-            }
-        }
-
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        return true;
+        return computeState(teamColor) == GameStatus.State.CHECKMATE;
     }
 
     /**
@@ -389,27 +1124,136 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        Collection<ChessPosition> positions = board.findAllPiecesOfColor(teamColor);
-        for (ChessPosition pos : positions) {
-            Collection<ChessMove> validMoves = validMoves(pos);
-            if (!validMoves.isEmpty()){
-                return false;
+        return computeState(teamColor) == GameStatus.State.STALEMATE;
+    }
+
+    /**
+     * Gets whether the side to move is in check, checkmate or stalemate. The
+     * result is worked out once per position and cached until a move (or any
+     * other change) produces a different position.
+     *
+     * @return status of the current position
+     */
+    public GameStatus getStatus() {
+        if (!isStatusCached()) {
+            GameStatus.State state = computeState(turn);
+            if (!state.isGameOver()) {
+                if (hasInsufficientMaterial()) {
+                    state = GameStatus.State.DRAW_BY_INSUFFICIENT_MATERIAL;
+                }
+                else if (isSeventyFiveMoveRule()) {
+                    state = GameStatus.State.DRAW_BY_SEVENTY_FIVE_MOVE_RULE;
+                }
+                else if (isFivefoldRepetition()) {
+                    state = GameStatus.State.DRAW_BY_REPETITION;
+                }
             }
+            cachedStatus = new GameStatus(state, turn);
+            cachedStatusKey = getZobristKey();
+            cachedStatusHistorySize = historySize;
         }
+        return cachedStatus;
+    }
 
-        if (isInCheck(teamColor)) {
-            return false;
+    /**
+     * The same key can come back with a different history behind it (that's
+     * what a repetition is), so the history length is part of the cache key
+     */
+    private boolean isStatusCached() {
+        return cachedStatus != null && cachedStatusKey == getZobristKey() && cachedStatusHistorySize == historySize;
+    }
+
+    private GameStatus.State computeState(TeamColor teamColor) {
+        if (turn == teamColor && isStatusCached() && !cachedStatus.isDraw()) {
+            return cachedStatus.state();
+        }
+        boolean inCheck = isInCheck(teamColor);
+        if (hasLegalMove(teamColor)) {
+            return inCheck ? GameStatus.State.CHECK : GameStatus.State.ONGOING;
         }
-        return true;
+        return inCheck ? GameStatus.State.CHECKMATE : GameStatus.State.STALEMATE;
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Counts the legal moves a team could make from the current position,
+     * from popcounts of each piece's allowed squares rather than a list of
+     * moves. En passant only counts for the side to move.
+     *
+     * @param teamColor the team to count moves for
+     * @return number of legal moves, the same as the size of {@link #legalMoves()} on that team's turn
+     */
+    public int countLegalMoves(TeamColor teamColor) {
+        int color = Bitboards.color(teamColor);
+        return MoveGenerator.countLegalMoves(board, color, castlingRights,
+                teamColor == turn ? enPassantSquare : NO_SQUARE, false);
+    }
+
+    /**
+     * Like {@link #countLegalMoves} but stops at the first legal move found,
+     * trying the king first since it usually has one
+     *
+     * @param teamColor the team to check
+     * @return True if the team has at least one legal move
+     */
+    public boolean hasLegalMove(TeamColor teamColor) {
+        int color = Bitboards.color(teamColor);
+        return MoveGenerator.countLegalMoves(board, color, castlingRights,
+                teamColor == turn ? enPassantSquare : NO_SQUARE, true) > 0;
+    }
+
+    /**
+     * Gets the legal moves for the side to move one at a time, captures
+     * first, generating each only when it is reached. The game must not be
+     * changed while the iterator is in use.
+     *
+     * @return iterator over packed moves (see {@link Move})
+     */
+    public LegalMoveIterator legalMoveIterator() {
+        return legalMoveIterator(turn);
+    }
+
+    /**
+     * @param teamColor the team to get moves for; en passant only counts for the side to move
+     * @return iterator over packed moves (see {@link Move})
+     */
+    public LegalMoveIterator legalMoveIterator(TeamColor teamColor) {
+        return new LegalMoveIterator(board, Bitboards.color(teamColor), castlingRights,
+                teamColor == turn ? enPassantSquare : NO_SQUARE);
+    }
+
+    /**
+     * Sets this game's chessboard with a given board. Each castling right is
+     * kept only if that king and rook are on their starting squares.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        castlingRights = castlingRightsOn(board);
+        //moves made on the old board can't be taken back or repeated on this one
+        undoSize = 0;
+        endedAtUndoSize = -1;
+        historySize = 0;
+        moveCount = 0;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        enPassantSquare = NO_SQUARE;
+        publish();
+    }
+
+    private static int castlingRightsOn(ChessBoard board) {
+        int rights = ALL_CASTLING_RIGHTS;
+        for (TeamColor color : TeamColor.values()) {
+            int row = color == TeamColor.WHITE ? 1 : 8;
+            for (int col : new int[] {1, 5, 8}) {
+                ChessPiece.PieceType type = col == 5 ? ChessPiece.PieceType.KING : ChessPiece.PieceType.ROOK;
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece == null || piece.getTeamColor() != color || piece.getPieceType() != type) {
+                    rights &= CASTLING_RIGHTS_KEPT[Bitboards.square(row, col)];
+                }
+            }
+        }
+        return rights;
     }
 
     /**
@@ -57,4 +57,35 @@ public class ChessMove {
     public ChessPiece.PieceType getPromotionPiece() {
         return promotionPiece;
     }
+
+    /**
+     * Packs the move into 16 bits: start square in bits 0-5, end square in
+     * bits 6-11 and promotion piece in bits 12-14 (see {@link Move}).
+     *
+     * @return the move code, which {@link #fromCode(short)} turns back into an equal move
+     * @throws IllegalArgumentException if either position is off the board
+     */
+    public short toCode() {
+        if (!Bitboards.isOnBoard(startPosition) || !Bitboards.isOnBoard(endPosition)) {
+            throw new IllegalArgumentException("Move is off the board");
+        }
+        return Move.toCode(Move.fromChessMove(this));
+    }
+
+    /**
+     * Unpacks a move code made by {@link #toCode()}
+     *
+     * @param code the 16-bit move code
+     * @return the move
+     * @throws IllegalArgumentException if the promotion bits don't name a piece
+     */
+    public static ChessMove fromCode(short code) {
+        int move = Move.fromCode(code);
+        //promotion codes run from 0 (none) to 6; 7 can't come from toCode
+        if ((move & 0x7000) == 0x7000) {
+            throw new IllegalArgumentException("Bad move code: " + (code & 0xFFFF));
+        }
+        return Move.toChessMove(move);
+    }
+
 }
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -12,6 +11,17 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    //one shared instance per color and type, indexed like the board's bitboards
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[Bitboards.pieceIndex(Bitboards.color(color), type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -20,6 +30,22 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type instead of allocating a
+     * new one. Pieces are immutable, so the shared instances can be used
+     * anywhere a new ChessPiece would be.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[Bitboards.pieceIndex(Bitboards.color(pieceColor), type)];
+    }
+
+    /**
+     * @return the shared instance for a bitboard piece index (see {@link Bitboards#pieceIndex})
+     */
+    static ChessPiece of(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -54,59 +80,10 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        PieceType type = getPieceType();
-        ArrayList<ChessMove> moves = new ArrayList<>();
-        switch (type) {
-            case KING:
-                addSingleMoves(1, 1, board, myPosition, moves);
-                addSingleMoves(-1, -1, board, myPosition, moves);
-                addSingleMoves(1, -1, board, myPosition, moves);
-                addSingleMoves(-1, 1, board, myPosition, moves);
-                addSingleMoves(1, 0, board, myPosition, moves);
-                addSingleMoves(-1, 0, board, myPosition, moves);
-                addSingleMoves(0, -1, board, myPosition, moves);
-                addSingleMoves(0, 1, board, myPosition, moves);
-                break;
-            case QUEEN:
-                addLoopMoves(1, 1, board, myPosition, moves);
-                addLoopMoves(-1, -1, board, myPosition, moves);
-                addLoopMoves(1, -1, board, myPosition, moves);
-                addLoopMoves(-1, 1, board, myPosition, moves);
-                addLoopMoves(1, 0, board, myPosition, moves);
-                addLoopMoves(-1, 0, board, myPosition, moves);
-                addLoopMoves(0, -1, board, myPosition, moves);
-                addLoopMoves(0, 1, board, myPosition, moves);
-                break;
-            case BISHOP:
-                addLoopMoves(1, 1, board, myPosition, moves);
-                addLoopMoves(-1, -1, board, myPosition, moves);
-                addLoopMoves(1, -1, board, myPosition, moves);
-                addLoopMoves(-1, 1, board, myPosition, moves);
-                break;
-            case KNIGHT:
-                addSingleMoves(2, 1, board, myPosition, moves);
-                addSingleMoves(2, -1, board, myPosition, moves);
-                addSingleMoves(1, 2, board, myPosition, moves);
-                addSingleMoves(1, -2, board, myPosition, moves);
-                addSingleMoves(-2, 1, board, myPosition, moves);
-                addSingleMoves(-2, -1, board, myPosition, moves);
-                addSingleMoves(-1, 2, board, myPosition, moves);
-                addSingleMoves(-1, -2, board, myPosition, moves);
-                break;
-            case ROOK:
-                addLoopMoves(1, 0, board, myPosition, moves);
-                addLoopMoves(-1, 0, board, myPosition, moves);
-                addLoopMoves(0, -1, board, myPosition, moves);
-                addLoopMoves(0, 1, board, myPosition, moves);
-                break;
-            case PAWN:
-                addPawnForwardMoves(1, board, myPosition, moves);
-                addPawnAttackingMoves(1, 1, board, myPosition, moves);
-                addPawnAttackingMoves(1, -1, board, myPosition, moves);
-                break;
-        }
-
-        return moves;
+        MoveList moves = new MoveList(32);
+        MoveGenerator.pieceMoves(board, Bitboards.square(myPosition), Bitboards.color(getTeamColor()),
+                getPieceType(), moves);
+        return moves.toChessMoves();
     }
 
     @Override
@@ -122,122 +99,4 @@ public class ChessPiece {
     public int hashCode() {
         return Objects.hash(pieceColor, type);
     }
-
-    public void addLoopMoves(int rowStep, int colStep, ChessBoard board, ChessPosition myPosition, ArrayList<ChessMove> moves){
-        int row = myPosition.getRow() + rowStep;
-        int col = myPosition.getColumn() + colStep;
-        ChessPosition startPos = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
-        while (row <= 8 && row >= 1 && col <= 8 && col >= 1) {
-            ChessPosition newPos = new ChessPosition(row, col);
-            ChessPiece pieceAtNewPos = board.getPiece(newPos);
-
-            if (pieceAtNewPos == null) {
-                ChessMove newMove = new ChessMove(startPos,newPos,null);
-                moves.add(newMove);
-//                System.out.println("(" + row + "," + col + ")");
-            }
-            else if (pieceAtNewPos.getTeamColor() != this.getTeamColor()) {
-                ChessMove newMove = new ChessMove(startPos,newPos,null);
-                moves.add(newMove);
-//                System.out.println("(" + row + "," + col + ")");
-                break;
-            }
-            else {
-                break;
-            }
-            row += rowStep;
-            col += colStep;
-        }
-    }
-
-    public void addSingleMoves(int rowStep, int colStep, ChessBoard board, ChessPosition myPosition, ArrayList<ChessMove> moves){
-        int row = myPosition.getRow() + rowStep;
-        int col = myPosition.getColumn() + colStep;
-        ChessPosition startPos = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
-        if (row <= 8 && row >= 1 && col <= 8 && col >= 1) {
-            ChessPosition newPos = new ChessPosition(row, col);
-            ChessPiece pieceAtNewPos = board.getPiece(newPos);
-
-            if (pieceAtNewPos == null || pieceAtNewPos.getTeamColor() != this.getTeamColor()) {
-                ChessMove newMove = new ChessMove(startPos, newPos, null);
-                moves.add(newMove);
-//                System.out.println("(" + row + "," + col + ")");
-            }
-        }
-    }
-
-    public void addPawnForwardMoves(int rowStep, ChessBoard board, ChessPosition myPosition, ArrayList<ChessMove> moves){
-        ChessPosition startPos = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
-        if (this.getTeamColor() == ChessGame.TeamColor.BLACK){
-            rowStep *= -1;
-        }
-
-        int row = myPosition.getRow() + rowStep;
-        int col = myPosition.getColumn();
-        if (row <= 8 && row >= 1 && col <= 8 && col >= 1) {
-            ChessPosition newPos = new ChessPosition(row, col);
-            ChessPiece pieceAtNewPos = board.getPiece(newPos);
-
-            if (pieceAtNewPos == null) {
-                if (this.getTeamColor() == ChessGame.TeamColor.WHITE && row == 8 ||
-                        this.getTeamColor() == ChessGame.TeamColor.BLACK && row == 1){
-                    moves.add(new ChessMove(startPos, newPos, PieceType.QUEEN));
-                    moves.add(new ChessMove(startPos, newPos, PieceType.ROOK));
-                    moves.add(new ChessMove(startPos, newPos, PieceType.BISHOP));
-                    moves.add(new ChessMove(startPos, newPos, PieceType.KNIGHT));
-//                    System.out.println("(" + row + "," + col + ")");
-                }
-                else {
-                    ChessMove newMove = new ChessMove(startPos, newPos, null);
-                    moves.add(newMove);
-//                    System.out.println("(" + row + "," + col + ")");
-                }
-
-                //if pawn is in initial position
-                if (this.getTeamColor() == ChessGame.TeamColor.BLACK && myPosition.getRow() == 7 ||
-                        this.getTeamColor() == ChessGame.TeamColor.WHITE && myPosition.getRow() == 2){
-                    row += rowStep;
-                    ChessPosition newNewPos = new ChessPosition(row, col);
-                    ChessPiece pieceAtNewNewPos = board.getPiece(newNewPos);
-                    if (pieceAtNewNewPos == null){
-                        ChessMove newMove = new ChessMove(startPos, newNewPos, null);
-                        moves.add(newMove);
-//                        System.out.println("(" + row + "," + col + ")");
-                    }
-                }
-            }
-        }
-    }
-
-    public void addPawnAttackingMoves(int rowStep, int colStep, ChessBoard board, ChessPosition myPosition, ArrayList<ChessMove> moves){
-        ChessPosition startPos = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
-        if (this.getTeamColor() == ChessGame.TeamColor.BLACK){
-            rowStep *= -1;
-        }
-
-        int row = myPosition.getRow() + rowStep;
-        int col = myPosition.getColumn() + colStep;
-
-        if (row <= 8 && row >= 1 && col <= 8 && col >= 1) {
-            ChessPosition newPos = new ChessPosition(row, col);
-            ChessPiece pieceAtNewPos = board.getPiece(newPos);
-
-            if (pieceAtNewPos != null){
-                if (pieceAtNewPos.getTeamColor() != this.getTeamColor()) {
-                    if (this.getTeamColor() == ChessGame.TeamColor.WHITE && row == 8 ||
-                            this.getTeamColor() == ChessGame.TeamColor.BLACK && row == 1) {
-                        moves.add(new ChessMove(startPos, newPos, PieceType.QUEEN));
-                        moves.add(new ChessMove(startPos, newPos, PieceType.ROOK));
-                        moves.add(new ChessMove(startPos, newPos, PieceType.BISHOP));
-                        moves.add(new ChessMove(startPos, newPos, PieceType.KNIGHT));
-//                        System.out.println("(" + row + "," + col + ")");
-                    } else {
-                        ChessMove newMove = new ChessMove(startPos, newPos, null);
-                        moves.add(newMove);
-//                        System.out.println("(" + row + "," + col + ")");
-                    }
-                }
-            }
-        }
-    }
 }
@@ -0,0 +1,64 @@
+package chess;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Rough heap sizes for the memory reports on {@link ChessGame} and
+ * {@link CompactGame}, assuming a 64-bit HotSpot JVM with compressed
+ * references: 12-byte object headers, 16-byte array headers, 4-byte
+ * references and everything rounded up to 8 bytes.
+ */
+final class Footprint {
+    static final int REFERENCE = 4;
+
+    private Footprint() {
+    }
+
+    /**
+     * @param fieldBytes total size of the object's own fields
+     */
+    static long object(int fieldBytes) {
+        return align(12 + fieldBytes);
+    }
+
+    /**
+     * Adds up a class's own instance fields from its declared field list,
+     * so the estimates can't fall behind when fields are added
+     *
+     * @return total size of the fields, before the header and padding
+     */
+    static int fieldBytes(Class<?> type) {
+        int bytes = 0;
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                bytes += size(field.getType());
+            }
+        }
+        return bytes;
+    }
+
+    private static int size(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    static long array(int length, int elementBytes) {
+        return align(16 + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
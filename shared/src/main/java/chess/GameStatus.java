@@ -0,0 +1,44 @@
+package chess;
+
+/**
+ * The state of a position for the side to move, as computed by
+ * {@link ChessGame#getStatus()}
+ *
+ * @param state      whether the side to move is in check, checkmated, stalemated, drawn or none of those
+ * @param sideToMove the team whose turn it is
+ */
+public record GameStatus(State state, ChessGame.TeamColor sideToMove) {
+
+    public enum State {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        //fivefold repetition; threefold only lets a player claim a draw
+        DRAW_BY_REPETITION,
+        //seventy-five moves each; fifty only lets a player claim a draw
+        DRAW_BY_SEVENTY_FIVE_MOVE_RULE,
+        DRAW_BY_INSUFFICIENT_MATERIAL;
+
+        /**
+         * @return True if no more moves can be played from this state
+         */
+        public boolean isGameOver() {
+            return this != ONGOING && this != CHECK;
+        }
+    }
+
+    /**
+     * @return True if no more moves can be played from this position
+     */
+    public boolean isGameOver() {
+        return state.isGameOver();
+    }
+
+    /**
+     * @return True if the game ended without a winner
+     */
+    public boolean isDraw() {
+        return state.isGameOver() && state != State.CHECKMATE;
+    }
+}
@@ -0,0 +1,210 @@
+package chess;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Steps through the legal moves of one side as packed ints (see
+ * {@link Move}), generating each only when it is asked for. Captures come
+ * first (en passant last among them), then quiet moves, then castling, and
+ * within each stage the moves of one piece are finished before the next
+ * piece is looked at. A caller that stops early, for example after the
+ * first move or the first capture, never pays for the rest.
+ * <p>
+ * Checkers and pins are worked out once when the iterator is made, the
+ * same way {@link MoveGenerator#legalMoves} does it. The board must not
+ * change while the iterator is in use.
+ */
+public final class LegalMoveIterator implements PrimitiveIterator.OfInt {
+    private static final int CAPTURES = 0;
+    private static final int EN_PASSANT = 1;
+    private static final int QUIETS = 2;
+    private static final int CASTLING = 3;
+    private static final int DONE = 4;
+
+    private final ChessBoard board;
+    private final int color;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final long own;
+    private final long enemy;
+    private final long occupancy;
+    private final long king;
+    private final int kingSquare;
+    private final long checkMask;
+    private final long pinned;
+    private final boolean inCheck;
+    //pieces allowed to move at all; only the king in double check
+    private final long movers;
+
+    private int stage = CAPTURES;
+    private long pieces;
+    private int from;
+    private ChessPiece.PieceType type;
+    private long targets;
+    private int promotionMove;
+    private int promotionsLeft;
+    private int next = Move.NONE;
+    private boolean hasNext;
+
+    LegalMoveIterator(ChessBoard board, int color, int castlingRights, int enPassantSquare) {
+        this.board = board;
+        this.color = color;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        own = board.occupancy(color);
+        enemy = board.occupancy(color ^ 1);
+        occupancy = own | enemy;
+        king = board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.KING));
+        if (king == 0) {
+            kingSquare = MoveGenerator.NO_SQUARE;
+            checkMask = -1L;
+            pinned = 0;
+            inCheck = false;
+            movers = own;
+        }
+        else {
+            kingSquare = Long.numberOfTrailingZeros(king);
+            long checkers = MoveGenerator.attackersTo(board, kingSquare, color ^ 1, occupancy);
+            inCheck = checkers != 0;
+            checkMask = checkers == 0 ? -1L
+                    : checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            pinned = MoveGenerator.pinnedPieces(board, kingSquare, color, occupancy);
+            movers = Long.bitCount(checkers) > 1 ? king : own;
+        }
+        pieces = movers;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!hasNext && stage != DONE) {
+            hasNext = advance();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = false;
+        return next;
+    }
+
+    /**
+     * @return True if the moves still to come are all non-captures, which
+     * is where a caller that only wants captures can stop
+     */
+    public boolean isPastCaptures() {
+        return stage >= QUIETS;
+    }
+
+    /**
+     * Finds the next legal move and leaves it in {@code next}
+     *
+     * @return False once every stage is used up
+     */
+    private boolean advance() {
+        while (true) {
+            if (promotionsLeft > 0) {
+                promotionsLeft--;
+                next = Move.of(Move.from(promotionMove), Move.to(promotionMove),
+                        MoveGenerator.PROMOTIONS[3 - promotionsLeft], promotionMove & ~0xFFFF);
+                return true;
+            }
+            if (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets = Bitboards.popLowest(targets);
+                if (type == ChessPiece.PieceType.KING
+                        && MoveGenerator.attackersTo(board, to, color ^ 1, occupancy & ~king) != 0) {
+                    continue;
+                }
+                if (nextMove(to)) {
+                    return true;
+                }
+                continue;
+            }
+            if (pieces != 0) {
+                if (nextPiece()) {
+                    return true;
+                }
+                continue;
+            }
+            switch (stage) {
+                case CAPTURES -> {
+                    stage = EN_PASSANT;
+                    pieces = enPassantSquare == MoveGenerator.NO_SQUARE ? 0
+                            : Attacks.pawn(color ^ 1, enPassantSquare)
+                            & board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.PAWN));
+                }
+                case EN_PASSANT -> {
+                    stage = QUIETS;
+                    pieces = movers;
+                }
+                case QUIETS -> {
+                    stage = CASTLING;
+                    //bit 0 is kingside, bit 1 queenside
+                    pieces = king != 0 && !inCheck ? (castlingRights >>> (color << 1)) & 3 : 0;
+                }
+                default -> {
+                    stage = DONE;
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the next piece (or en passant pawn, or castling side) of the
+     * current stage. En passant and castling are checked on the spot since
+     * each gives at most one move.
+     *
+     * @return True if that already produced the next move
+     */
+    private boolean nextPiece() {
+        int square = Long.numberOfTrailingZeros(pieces);
+        pieces = Bitboards.popLowest(pieces);
+        if (stage == EN_PASSANT) {
+            next = Move.of(square, enPassantSquare) | Move.CAPTURE | Move.EN_PASSANT;
+            return MoveGenerator.isLegalEnPassant(board, color, square, enPassantSquare, kingSquare);
+        }
+        if (stage == CASTLING) {
+            boolean kingSide = square == 0;
+            next = Move.of(kingSquare, kingSide ? kingSquare + 2 : kingSquare - 2) | Move.CASTLE;
+            return MoveGenerator.canCastle(board, color, castlingRights, kingSide);
+        }
+
+        from = square;
+        type = board.getPiece(square).getPieceType();
+        long reachable = MoveGenerator.targets(square, color, type, occupancy, enemy) & ~own;
+        if (type != ChessPiece.PieceType.KING) {
+            reachable &= checkMask;
+            if ((pinned & (1L << square)) != 0) {
+                reachable &= Attacks.line(kingSquare, square);
+            }
+        }
+        targets = reachable & (stage == CAPTURES ? enemy : ~enemy);
+        return false;
+    }
+
+    /**
+     * @return True if the move to {@code to} is ready in {@code next}, false
+     * if it is a promotion whose four moves are handed out by advance
+     */
+    private boolean nextMove(int to) {
+        int flags = (enemy & (1L << to)) != 0 ? Move.CAPTURE : 0;
+        if (type == ChessPiece.PieceType.PAWN) {
+            if ((to >>> 3) == (color == Bitboards.WHITE ? 7 : 0)) {
+                promotionMove = Move.of(from, to) | flags;
+                promotionsLeft = 4;
+                return false;
+            }
+            if (Math.abs(to - from) == 16) {
+                flags |= Move.DOUBLE_PUSH;
+            }
+        }
+        next = Move.of(from, to) | flags;
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Packs a move into a single {@code int} so move generation doesn't have
+ * to allocate {@link ChessMove} objects.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (see
+ * {@link Bitboards}) and bits 12-14 the promotion piece (0 for none,
+ * otherwise the {@link ChessPiece.PieceType} ordinal plus one). The flag
+ * bits from 16 up describe how the move has to be played.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 16;
+    public static final int DOUBLE_PUSH = 1 << 17;
+    public static final int EN_PASSANT = 1 << 18;
+    public static final int CASTLE = 1 << 19;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | (to << 6) | (promotionCode(promotion) << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if this isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 0x7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & 0x7000) != 0;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    static int promotionCode(ChessPiece.PieceType promotion) {
+        return promotion == null ? 0 : promotion.ordinal() + 1;
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * Packs a ChessMove. The result has no flags set, so it only identifies
+     * the move.
+     */
+    public static int fromChessMove(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * @return the 16-bit code for a move: its start, end and promotion without flags
+     */
+    public static short toCode(int move) {
+        return (short) (move & 0x7FFF);
+    }
+
+    public static int fromCode(short code) {
+        return code & 0x7FFF;
+    }
+}
@@ -0,0 +1,450 @@
+package chess;
+
+/**
+ * Generates pseudo-legal moves as packed ints (see {@link Move}) into a
+ * caller-owned {@link MoveList}. Nothing here allocates, so it can be used
+ * on the hot paths in {@link ChessGame}.
+ * <p>
+ * Like {@link ChessPiece#pieceMoves}, {@link #pieceMoves} doesn't account
+ * for leaving the king in danger. Castling
+ * and en passant depend on the game's history, so only {@link #legalMoves}
+ * produces them, from the rights and square it is given.
+ */
+final class MoveGenerator {
+    static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT
+    };
+
+    static final int NO_SQUARE = 64;
+    static final int WHITE_KING_HOME = 4;
+    static final int BLACK_KING_HOME = 60;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the moves a piece of the given color and type could make from square
+     */
+    static void pieceMoves(ChessBoard board, int square, int color, ChessPiece.PieceType type, MoveList moves) {
+        long own = board.occupancy(color);
+        long enemy = board.occupancy(color ^ 1);
+        long occupancy = own | enemy;
+        long targets;
+        switch (type) {
+            case KING -> targets = Attacks.king(square);
+            case QUEEN -> targets = Attacks.queen(square, occupancy);
+            case BISHOP -> targets = Attacks.bishop(square, occupancy);
+            case KNIGHT -> targets = Attacks.knight(square);
+            case ROOK -> targets = Attacks.rook(square, occupancy);
+            case PAWN -> {
+                pawnMoves(square, color, occupancy, enemy, moves);
+                return;
+            }
+            default -> {
+                return;
+            }
+        }
+        addMoves(square, targets & ~own, enemy, moves);
+    }
+
+    /**
+     * Adds only the legal moves for the pieces of a color that stand on
+     * {@code fromMask}. Checkers and pinned pieces are worked out once up
+     * front, so no move has to be tried on the board:
+     * <ul>
+     *     <li>the king may only step to squares the enemy doesn't attack</li>
+     *     <li>in double check only the king can move</li>
+     *     <li>in single check other pieces must capture the checker or block</li>
+     *     <li>pinned pieces must stay on the line between their king and the pinner</li>
+     * </ul>
+     *
+     * @param castlingRights castling rights mask (see {@link ChessGame#WHITE_KINGSIDE})
+     * @param enPassantSquare square a pawn may capture onto en passant, or 64 for none
+     */
+    static void legalMoves(ChessBoard board, int color, long fromMask, int castlingRights, int enPassantSquare,
+                           MoveList moves) {
+        long king = board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.KING));
+        if (king == 0) {
+            //nothing can be checked, so every pseudo-legal move counts
+            pseudoLegalMoves(board, color, fromMask, moves);
+            if (enPassantSquare != NO_SQUARE) {
+                enPassantMoves(board, color, fromMask, enPassantSquare, NO_SQUARE, moves);
+            }
+            return;
+        }
+        int kingSquare = Long.numberOfTrailingZeros(king);
+        int enemy = color ^ 1;
+        long own = board.occupancy(color);
+        long occupancy = own | board.occupancy(enemy);
+        long checkers = attackersTo(board, kingSquare, enemy, occupancy);
+
+        if ((fromMask & king) != 0) {
+            int start = moves.size();
+            pieceMoves(board, kingSquare, color, ChessPiece.PieceType.KING, moves);
+            long withoutKing = occupancy & ~king;
+            for (int i = moves.size() - 1; i >= start; i--) {
+                if (attackersTo(board, Move.to(moves.get(i)), enemy, withoutKing) != 0) {
+                    moves.removeAt(i);
+                }
+            }
+            if (checkers == 0 && (castlingRights & (3 << (color << 1))) != 0) {
+                castlingMoves(board, color, castlingRights, moves);
+            }
+        }
+
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+        long checkMask = checkers == 0 ? -1L
+                : checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        long pinned = pinnedPieces(board, kingSquare, color, occupancy);
+
+        long pieces = own & ~king & fromMask;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces = Bitboards.popLowest(pieces);
+
+            long allowed = checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= Attacks.line(kingSquare, from);
+            }
+            int start = moves.size();
+            pieceMoves(board, from, color, board.getPiece(from).getPieceType(), moves);
+            for (int i = moves.size() - 1; i >= start; i--) {
+                if ((allowed & (1L << Move.to(moves.get(i)))) == 0) {
+                    moves.removeAt(i);
+                }
+            }
+        }
+
+        if (enPassantSquare != NO_SQUARE) {
+            enPassantMoves(board, color, fromMask, enPassantSquare, kingSquare, moves);
+        }
+    }
+
+    private static void castlingMoves(ChessBoard board, int color, int castlingRights, MoveList moves) {
+        int home = color == Bitboards.WHITE ? WHITE_KING_HOME : BLACK_KING_HOME;
+        if (canCastle(board, color, castlingRights, true)) {
+            moves.add(Move.of(home, home + 2) | Move.CASTLE);
+        }
+        if (canCastle(board, color, castlingRights, false)) {
+            moves.add(Move.of(home, home - 2) | Move.CASTLE);
+        }
+    }
+
+    /**
+     * Checks that a castle is still allowed by the rights mask, that the king
+     * and rook are on their starting squares with nothing between them, and
+     * that the king isn't in check and doesn't pass through or land on an
+     * attacked square. The king is lifted off the board for the attack
+     * queries so it can't shield the squares it moves along.
+     */
+    static boolean canCastle(ChessBoard board, int color, int castlingRights, boolean kingSide) {
+        if ((castlingRights & ((kingSide ? 1 : 2) << (color << 1))) == 0) {
+            return false;
+        }
+        int home = color == Bitboards.WHITE ? WHITE_KING_HOME : BLACK_KING_HOME;
+        int rookSquare = kingSide ? home + 3 : home - 4;
+        if ((board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.KING)) & (1L << home)) == 0
+                || (board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.ROOK)) & (1L << rookSquare)) == 0) {
+            return false;
+        }
+        long occupancy = board.getOccupancy();
+        if ((Attacks.between(home, rookSquare) & occupancy) != 0) {
+            return false;
+        }
+        int step = kingSide ? 1 : -1;
+        int enemy = color ^ 1;
+        occupancy &= ~(1L << home);
+        return attackersTo(board, home, enemy, occupancy) == 0
+                && attackersTo(board, home + step, enemy, occupancy) == 0
+                && attackersTo(board, home + 2 * step, enemy, occupancy) == 0;
+    }
+
+    /**
+     * Adds en passant captures onto {@code enPassantSquare}. Pins and checks
+     * are handled by clearing both pawns from the occupancy and asking
+     * whether anything still attacks the king, which also catches the rare
+     * case of two pawns leaving a rank together and uncovering a rook.
+     */
+    private static void enPassantMoves(ChessBoard board, int color, long fromMask, int enPassantSquare,
+                                       int kingSquare, MoveList moves) {
+        long pawns = Attacks.pawn(color ^ 1, enPassantSquare)
+                & board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.PAWN)) & fromMask;
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns = Bitboards.popLowest(pawns);
+            if (isLegalEnPassant(board, color, from, enPassantSquare, kingSquare)) {
+                moves.add(Move.of(from, enPassantSquare) | Move.CAPTURE | Move.EN_PASSANT);
+            }
+        }
+    }
+
+    static boolean isLegalEnPassant(ChessBoard board, int color, int from, int enPassantSquare,
+                                            int kingSquare) {
+        int capturedSquare = enPassantSquare + (color == Bitboards.WHITE ? -8 : 8);
+        long capturedBit = 1L << capturedSquare;
+        long occupancy = board.getOccupancy();
+        if ((board.pieces(Bitboards.pieceIndex(color ^ 1, ChessPiece.PieceType.PAWN)) & capturedBit) == 0
+                || (occupancy & (1L << enPassantSquare)) != 0) {
+            return false;
+        }
+        if (kingSquare == NO_SQUARE) {
+            return true;
+        }
+        occupancy = (occupancy ^ (1L << from) ^ capturedBit) | (1L << enPassantSquare);
+        return (attackersTo(board, kingSquare, color ^ 1, occupancy) & ~capturedBit) == 0;
+    }
+
+    /**
+     * Checks one move without generating any others: the piece must belong
+     * to color and be able to reach the end square, a pawn reaching the last
+     * row must name a promotion piece (and no other move may), and then a
+     * single attack query on the king with the move applied to the
+     * occupancy covers both checks and pins.
+     *
+     * @param move packed move; its flags are ignored
+     * @param castlingRights castling rights mask (see {@link ChessGame#WHITE_KINGSIDE})
+     * @param enPassantSquare square a pawn may capture onto en passant, or 64 for none
+     */
+    static boolean isLegal(ChessBoard board, int color, int move, int castlingRights, int enPassantSquare) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null || Bitboards.color(piece.getTeamColor()) != color) {
+            return false;
+        }
+        ChessPiece.PieceType type = piece.getPieceType();
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        boolean promotes = type == ChessPiece.PieceType.PAWN && (to >>> 3) == (color == Bitboards.WHITE ? 7 : 0);
+        if (promotes ? promotion == null || promotion == ChessPiece.PieceType.KING || promotion == ChessPiece.PieceType.PAWN
+                : promotion != null) {
+            return false;
+        }
+
+        int kingSquare = board.kingSquare(color);
+        if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            return canCastle(board, color, castlingRights, to > from);
+        }
+        if (type == ChessPiece.PieceType.PAWN && to == enPassantSquare && (from & 7) != (to & 7)) {
+            return (Attacks.pawn(color, from) & (1L << to)) != 0
+                    && isLegalEnPassant(board, color, from, enPassantSquare, kingSquare);
+        }
+
+        long own = board.occupancy(color);
+        long enemy = board.occupancy(color ^ 1);
+        long occupancy = own | enemy;
+        long toBit = 1L << to;
+        if ((targets(from, color, type, occupancy, enemy) & ~own & toBit) == 0) {
+            return false;
+        }
+
+        if (kingSquare == NO_SQUARE) {
+            return true;
+        }
+        if (type == ChessPiece.PieceType.KING) {
+            return attackersTo(board, to, color ^ 1, occupancy & ~(1L << from)) == 0;
+        }
+        //a capture removes the attacker on the end square, so it is masked out
+        long after = (occupancy & ~(1L << from)) | toBit;
+        return (attackersTo(board, kingSquare, color ^ 1, after) & ~toBit) == 0;
+    }
+
+    /**
+     * Counts legal moves the same way {@link #legalMoves} finds them, but
+     * with a popcount of each piece's allowed target squares instead of
+     * adding moves to a list. Only king steps and en passant captures are
+     * counted one at a time, since each needs its own attack query.
+     *
+     * @param stopAtFirst return as soon as any legal move is found
+     * @return the number of legal moves, or just some positive number if stopAtFirst
+     */
+    static int countLegalMoves(ChessBoard board, int color, int castlingRights, int enPassantSquare,
+                               boolean stopAtFirst) {
+        long own = board.occupancy(color);
+        long enemy = board.occupancy(color ^ 1);
+        long occupancy = own | enemy;
+        long king = board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.KING));
+        int kingSquare = Long.numberOfTrailingZeros(king);
+        int count = 0;
+
+        long checkMask = -1L;
+        long pinned = 0;
+        if (king != 0) {
+            long withoutKing = occupancy & ~king;
+            long steps = Attacks.king(kingSquare) & ~own;
+            while (steps != 0) {
+                if (attackersTo(board, Long.numberOfTrailingZeros(steps), color ^ 1, withoutKing) == 0) {
+                    count++;
+                    if (stopAtFirst) {
+                        return count;
+                    }
+                }
+                steps = Bitboards.popLowest(steps);
+            }
+            long checkers = attackersTo(board, kingSquare, color ^ 1, occupancy);
+            if (checkers == 0 && (castlingRights & (3 << (color << 1))) != 0) {
+                count += (canCastle(board, color, castlingRights, true) ? 1 : 0)
+                        + (canCastle(board, color, castlingRights, false) ? 1 : 0);
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return count;
+            }
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinnedPieces(board, kingSquare, color, occupancy);
+        }
+
+        int promotionRow = color == Bitboards.WHITE ? 6 : 1;
+        long pieces = own & ~king;
+        while (pieces != 0) {
+            if (stopAtFirst && count > 0) {
+                return count;
+            }
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces = Bitboards.popLowest(pieces);
+
+            long allowed = checkMask & ~own;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= Attacks.line(kingSquare, from);
+            }
+            ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+            int moves = Long.bitCount(targets(from, color, type, occupancy, enemy) & allowed);
+            //each pawn move onto the last row is four moves, one per promotion piece
+            count += type == ChessPiece.PieceType.PAWN && (from >>> 3) == promotionRow ? moves << 2 : moves;
+        }
+
+        if (enPassantSquare != NO_SQUARE) {
+            long pawns = Attacks.pawn(color ^ 1, enPassantSquare)
+                    & board.pieces(Bitboards.pieceIndex(color, ChessPiece.PieceType.PAWN));
+            while (pawns != 0) {
+                if (isLegalEnPassant(board, color, Long.numberOfTrailingZeros(pawns), enPassantSquare,
+                        king == 0 ? NO_SQUARE : kingSquare)) {
+                    count++;
+                }
+                pawns = Bitboards.popLowest(pawns);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return squares a piece could move to, ignoring what's on them for
+     * everything but pawns and without castling or en passant
+     */
+    static long targets(int from, int color, ChessPiece.PieceType type, long occupancy, long enemy) {
+        return switch (type) {
+            case KING -> Attacks.king(from);
+            case QUEEN -> Attacks.queen(from, occupancy);
+            case BISHOP -> Attacks.bishop(from, occupancy);
+            case KNIGHT -> Attacks.knight(from);
+            case ROOK -> Attacks.rook(from, occupancy);
+            case PAWN -> pawnTargets(from, color, occupancy, enemy);
+        };
+    }
+
+    private static long pawnTargets(int square, int color, long occupancy, long enemy) {
+        int oneStep = color == Bitboards.WHITE ? square + 8 : square - 8;
+        long targets = Attacks.pawn(color, square) & enemy;
+        if (oneStep >= 0 && oneStep < 64 && (occupancy & (1L << oneStep)) == 0) {
+            targets |= 1L << oneStep;
+            int twoSteps = color == Bitboards.WHITE ? oneStep + 8 : oneStep - 8;
+            if ((square >>> 3) == (color == Bitboards.WHITE ? 1 : 6) && (occupancy & (1L << twoSteps)) == 0) {
+                targets |= 1L << twoSteps;
+            }
+        }
+        return targets;
+    }
+
+    private static void pseudoLegalMoves(ChessBoard board, int color, long fromMask, MoveList moves) {
+        long pieces = board.occupancy(color) & fromMask;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieceMoves(board, from, color, board.getPiece(from).getPieceType(), moves);
+            pieces = Bitboards.popLowest(pieces);
+        }
+    }
+
+    /**
+     * @return bitboard of the pieces of color {@code by} that attack square,
+     * treating {@code occupancy} as the pieces that block sliders
+     */
+    static long attackersTo(ChessBoard board, int square, int by, long occupancy) {
+        long queens = board.pieces(Bitboards.pieceIndex(by, ChessPiece.PieceType.QUEEN));
+        long rooks = board.pieces(Bitboards.pieceIndex(by, ChessPiece.PieceType.ROOK)) | queens;
+        long bishops = board.pieces(Bitboards.pieceIndex(by, ChessPiece.PieceType.BISHOP)) | queens;
+        //a pawn of the other color on this square would attack exactly the squares our pawns attack from
+        return (Attacks.pawn(by ^ 1, square) & board.pieces(Bitboards.pieceIndex(by, ChessPiece.PieceType.PAWN)))
+                | (Attacks.knight(square) & board.pieces(Bitboards.pieceIndex(by, ChessPiece.PieceType.KNIGHT)))
+                | (Attacks.king(square) & board.pieces(Bitboards.pieceIndex(by, ChessPiece.PieceType.KING)))
+                | (Attacks.rook(square, occupancy) & rooks)
+                | (Attacks.bishop(square, occupancy) & bishops);
+    }
+
+    /**
+     * @return bitboard of the pieces of color that are the only piece between
+     * their king and an enemy slider
+     */
+    static long pinnedPieces(ChessBoard board, int kingSquare, int color, long occupancy) {
+        int enemy = color ^ 1;
+        long queens = board.pieces(Bitboards.pieceIndex(enemy, ChessPiece.PieceType.QUEEN));
+        long snipers = (Attacks.rook(kingSquare, 0) & (queens
+                | board.pieces(Bitboards.pieceIndex(enemy, ChessPiece.PieceType.ROOK))))
+                | (Attacks.bishop(kingSquare, 0) & (queens
+                | board.pieces(Bitboards.pieceIndex(enemy, ChessPiece.PieceType.BISHOP))));
+        long pinned = 0;
+        while (snipers != 0) {
+            long blockers = Attacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupancy;
+            if (blockers != 0 && Bitboards.popLowest(blockers) == 0) {
+                pinned |= blockers;
+            }
+            snipers = Bitboards.popLowest(snipers);
+        }
+        return pinned & board.occupancy(color);
+    }
+
+    static void addMoves(int from, long targets, long enemy, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.of(from, to) | ((enemy & (1L << to)) != 0 ? Move.CAPTURE : 0));
+            targets = Bitboards.popLowest(targets);
+        }
+    }
+
+    static void pawnMoves(int square, int color, long occupancy, long enemy, MoveList moves) {
+        int forward = color == Bitboards.WHITE ? 8 : -8;
+        int row = square >>> 3;
+        int startRow = color == Bitboards.WHITE ? 1 : 6;
+        int promotionRow = color == Bitboards.WHITE ? 6 : 1;
+
+        int oneStep = square + forward;
+        if (oneStep >= 0 && oneStep < 64 && (occupancy & (1L << oneStep)) == 0) {
+            addPawnMove(square, oneStep, row == promotionRow, 0, moves);
+            int twoSteps = oneStep + forward;
+            if (row == startRow && (occupancy & (1L << twoSteps)) == 0) {
+                moves.add(Move.of(square, twoSteps) | Move.DOUBLE_PUSH);
+            }
+        }
+
+        long captures = Attacks.pawn(color, square) & enemy;
+        while (captures != 0) {
+            addPawnMove(square, Long.numberOfTrailingZeros(captures), row == promotionRow, Move.CAPTURE, moves);
+            captures = Bitboards.popLowest(captures);
+        }
+    }
+
+    private static void addPawnMove(int from, int to, boolean promotes, int flags, MoveList moves) {
+        if (promotes) {
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                moves.add(Move.of(from, to, promotion, flags));
+            }
+        }
+        else {
+            moves.add(Move.of(from, to) | flags);
+        }
+    }
+}
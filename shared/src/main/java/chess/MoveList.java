@@ -0,0 +1,63 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A growable list of packed {@link Move} ints. Callers keep one around and
+ * {@link #clear()} it between uses so generating moves doesn't allocate.
+ */
+public final class MoveList {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 8)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Removes the move at index by swapping the last move into its place,
+     * so order isn't kept.
+     */
+    public void removeAt(int index) {
+        moves[index] = moves[--size];
+    }
+
+    /**
+     * Converts the packed moves to ChessMove objects for the public API
+     */
+    public ArrayList<ChessMove> toChessMoves() {
+        ArrayList<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(Move.toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft ("performance test") counts the leaf nodes of the legal move tree
+ * to a fixed depth. The counts for well known positions are published, so
+ * perft checks that move generation is correct, and timing it measures
+ * how fast move generation is.
+ * <p>
+ * {@code PerftBenchmark} in the tests times the starting position.
+ */
+public final class Perft {
+
+    /**
+     * Node count and how long it took to get it
+     */
+    public record Result(long nodes, long nanos) {
+        public double nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d nodes in %.3f s (%,.0f nodes/s)", nodes, nanos / 1e9, nodesPerSecond());
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Counts leaf nodes of the legal move tree for the side to move. The game
+     * is played forward and taken back with doMove/undoMove, so it is left
+     * as it was found.
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] lists) {
+        //the last ply only needs counting, which doesn't need the moves themselves
+        if (depth == 1) {
+            return game.countLegalMoves(game.getTeamTurn());
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        game.legalMoves(moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Perft split by root move, which is how a wrong count is narrowed down
+     * to the move that causes it
+     *
+     * @return node count below each legal root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            counts.put(Move.toChessMove(moves.get(i)), perft(game, depth - 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Perft with each root move searched as its own task on the pool. Every
+     * task works on its own copy of the game; the game passed in isn't
+     * changed.
+     */
+    public static long parallelPerft(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return perft(game, depth);
+        }
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        List<RootMoveTask> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            tasks.add(new RootMoveTask(game.copy(), moves.get(i), depth - 1));
+        }
+        return pool.invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                long nodes = 0;
+                for (RootMoveTask task : invokeAll(tasks)) {
+                    nodes += task.join();
+                }
+                return nodes;
+            }
+        });
+    }
+
+    public static Result timed(ChessGame game, int depth) {
+        long start = System.nanoTime();
+        long nodes = perft(game, depth);
+        return new Result(nodes, System.nanoTime() - start);
+    }
+
+    public static Result timedParallel(ChessGame game, int depth, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        long nodes = parallelPerft(game, depth, pool);
+        return new Result(nodes, System.nanoTime() - start);
+    }
+
+    //tasks only ever run inside the pool and are never serialized
+    @SuppressWarnings("serial")
+    private static class RootMoveTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int move;
+        private final int depth;
+
+        RootMoveTask(ChessGame game, int move, int depth) {
+            this.game = game;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            game.doMove(move);
+            return perft(game, depth);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a game position: the twelve piece bitboards plus
+ * side to move, castling rights, en passant square and clocks. Taking one
+ * copies twelve longs, and every field is final, so a snapshot can be handed
+ * to other threads and read without locks while the game that made it keeps
+ * moving.
+ * <p>
+ * Get one from {@link ChessGame#snapshot()} or {@link ChessGame#getPosition()}.
+ */
+public final class Position {
+    private final long[] pieces;
+    private final long zobristKey;
+    private final ChessGame.TeamColor turn;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+
+    Position(long[] pieces, long zobristKey, ChessGame.TeamColor turn, int castlingRights, int enPassantSquare,
+             int halfmoveClock, int fullmoveNumber) {
+        this.pieces = pieces;
+        this.zobristKey = zobristKey;
+        this.turn = turn;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * @return the piece on a square, or null if it is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        return getPiece(Bitboards.square(position));
+    }
+
+    ChessPiece getPiece(int square) {
+        long bit = 1L << square;
+        for (int index = 0; index < pieces.length; index++) {
+            if ((pieces[index] & bit) != 0) {
+                return ChessPiece.of(index);
+            }
+        }
+        return null;
+    }
+
+    public long getPieceBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[Bitboards.pieceIndex(Bitboards.color(color), type)];
+    }
+
+    public long getOccupancy() {
+        long occupancy = 0;
+        for (long bitboard : pieces) {
+            occupancy |= bitboard;
+        }
+        return occupancy;
+    }
+
+    public ChessGame.TeamColor getTeamTurn() {
+        return turn;
+    }
+
+    /**
+     * @return the same key {@link ChessGame#getZobristKey()} gave when the snapshot was taken
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return a new mutable board with this position's pieces
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (int index = 0; index < pieces.length; index++) {
+            long bitboard = pieces[index];
+            while (bitboard != 0) {
+                board.setPiece(Long.numberOfTrailingZeros(bitboard), ChessPiece.of(index));
+                bitboard = Bitboards.popLowest(bitboard);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return a new game starting from this position, with no move history
+     */
+    public ChessGame toGame() {
+        return new ChessGame(toBoard(), turn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    public String toFen() {
+        return ChessGame.toFen(toBoard(), turn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Position that = (Position) o;
+        return zobristKey == that.zobristKey && turn == that.turn && castlingRights == that.castlingRights
+                && enPassantSquare == that.enPassantSquare && Arrays.equals(pieces, that.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
@@ -0,0 +1,181 @@
+package chess;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Holds positions packed into 32 bytes each in direct (off-heap) buffers,
+ * for datasets too big to keep as ChessGame objects. Each slot is:
+ * <ul>
+ *     <li>bytes 0-7: occupancy bitboard</li>
+ *     <li>bytes 8-23: a 4-bit piece index (see {@link Bitboards#pieceIndex})
+ *     for each occupied square, lowest square first</li>
+ *     <li>byte 24: side to move in bit 0, castling rights in bits 1-4</li>
+ *     <li>byte 25: en passant square, or 64 for none</li>
+ *     <li>byte 26: halfmove clock, capped at 255</li>
+ *     <li>bytes 28-29: fullmove number</li>
+ * </ul>
+ * A legal position never has more than 32 pieces, so the piece field is
+ * always big enough. Storage grows in chunks, so no single buffer has to
+ * hold the whole dataset. Not thread safe for writers.
+ */
+public final class PositionStore {
+    public static final int BYTES_PER_POSITION = 32;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_POSITIONS = 1 << CHUNK_SHIFT;
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private int size;
+
+    public PositionStore() {
+    }
+
+    /**
+     * @param expectedPositions how many positions to allocate room for up front
+     */
+    public PositionStore(int expectedPositions) {
+        ensureCapacity(expectedPositions);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return off-heap bytes allocated for positions
+     */
+    public long allocatedBytes() {
+        return (long) chunks.length * CHUNK_POSITIONS * BYTES_PER_POSITION;
+    }
+
+    /**
+     * Packs a game's current position and appends it
+     *
+     * @return index of the stored position
+     * @throws IllegalArgumentException if the board has more than 32 pieces
+     */
+    public int add(ChessGame game) {
+        ensureCapacity(size + 1);
+        write(size, game.getBoard(), game.getTeamTurn(), game.castlingRights(), game.enPassantSquare(),
+                game.getHalfmoveClock(), game.getFullmoveNumber());
+        return size++;
+    }
+
+    /**
+     * Packs a bare board, with no castling rights or en passant square
+     *
+     * @return index of the stored position
+     * @throws IllegalArgumentException if the board has more than 32 pieces
+     */
+    public int add(ChessBoard board, ChessGame.TeamColor turn) {
+        ensureCapacity(size + 1);
+        write(size, board, turn, 0, MoveGenerator.NO_SQUARE, 0, 1);
+        return size++;
+    }
+
+    /**
+     * Replaces the position stored at index
+     */
+    public void set(int index, ChessGame game) {
+        checkIndex(index);
+        write(index, game.getBoard(), game.getTeamTurn(), game.castlingRights(), game.enPassantSquare(),
+                game.getHalfmoveClock(), game.getFullmoveNumber());
+    }
+
+    public ChessGame.TeamColor getTeamTurn(int index) {
+        checkIndex(index);
+        return (chunk(index).get(offset(index) + 24) & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return bitboard of the occupied squares of the stored position
+     */
+    public long getOccupancy(int index) {
+        checkIndex(index);
+        return chunk(index).getLong(offset(index));
+    }
+
+    /**
+     * Unpacks the pieces of a stored position onto a new board
+     */
+    public ChessBoard getBoard(int index) {
+        checkIndex(index);
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        ChessBoard board = new ChessBoard();
+        long occupancy = chunk.getLong(offset);
+        long codes = chunk.getLong(offset + 8);
+        for (int i = 0; occupancy != 0; i++) {
+            if (i == 16) {
+                codes = chunk.getLong(offset + 16);
+            }
+            board.setPiece(Long.numberOfTrailingZeros(occupancy), ChessPiece.of((int) (codes >>> ((i & 15) << 2)) & 0xF));
+            occupancy = Bitboards.popLowest(occupancy);
+        }
+        return board;
+    }
+
+    /**
+     * Unpacks a stored position into a new game with no move history
+     */
+    public ChessGame getGame(int index) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        int state = chunk.get(offset + 24);
+        return new ChessGame(getBoard(index), (state & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK,
+                state >>> 1, chunk.get(offset + 25), chunk.get(offset + 26) & 0xFF, chunk.getShort(offset + 28) & 0xFFFF);
+    }
+
+    private void write(int index, ChessBoard board, ChessGame.TeamColor turn, int castlingRights,
+                       int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        long occupancy = board.getOccupancy();
+        if (Long.bitCount(occupancy) > 32) {
+            throw new IllegalArgumentException("Can't pack more than 32 pieces");
+        }
+        long[] codes = new long[2];
+        long pieces = occupancy;
+        for (int i = 0; pieces != 0; i++) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            codes[i >>> 4] |= (long) Bitboards.pieceIndex(board.getPiece(square)) << ((i & 15) << 2);
+            pieces = Bitboards.popLowest(pieces);
+        }
+
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        chunk.putLong(offset, occupancy);
+        chunk.putLong(offset + 8, codes[0]);
+        chunk.putLong(offset + 16, codes[1]);
+        chunk.put(offset + 24, (byte) ((turn == ChessGame.TeamColor.WHITE ? 0 : 1) | (castlingRights << 1)));
+        chunk.put(offset + 25, (byte) enPassantSquare);
+        chunk.put(offset + 26, (byte) Math.min(halfmoveClock, 255));
+        chunk.put(offset + 27, (byte) 0);
+        chunk.putShort(offset + 28, (short) Math.min(fullmoveNumber, 0xFFFF));
+        chunk.putShort(offset + 30, (short) 0);
+    }
+
+    private void ensureCapacity(int positions) {
+        int needed = (int) (((long) positions + CHUNK_POSITIONS - 1) >>> CHUNK_SHIFT);
+        if (needed > chunks.length) {
+            int old = chunks.length;
+            chunks = Arrays.copyOf(chunks, needed);
+            for (int i = old; i < needed; i++) {
+                chunks[i] = ByteBuffer.allocateDirect(CHUNK_POSITIONS * BYTES_PER_POSITION).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    private ByteBuffer chunk(int index) {
+        return chunks[index >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int index) {
+        return (index & (CHUNK_POSITIONS - 1)) * BYTES_PER_POSITION;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No position " + index + " in a store of " + size);
+        }
+    }
+}
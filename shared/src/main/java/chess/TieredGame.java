@@ -0,0 +1,101 @@
+package chess;
+
+import java.util.function.Function;
+
+/**
+ * Holds one game in whichever of two forms suits it: a live
+ * {@link ChessGame} while it is being played, or a {@link CompactGame} once
+ * nothing has touched it for a while. Callers always go through
+ * {@link #withGame} or {@link #makeMove}, which expand an idle game back
+ * into a live one first, so they never see which form it was in. The live
+ * game never leaves this holder: a reference kept past a compact would
+ * point at a game that is no longer the one being played.
+ * <p>
+ * Compacting is left to the owner, usually a sweep over all held games
+ * calling {@link #compactIfIdle}. {@code TieredGameBenchmark} in the
+ * tests measures the memory each form takes.
+ */
+public final class TieredGame {
+    private ChessGame active;
+    private CompactGame idle;
+    private long lastUsed;
+
+    /**
+     * @param game the game to hold; it is copied, so later changes to it
+     *             don't reach the held game
+     */
+    public TieredGame(ChessGame game) {
+        active = game.copy();
+        lastUsed = System.nanoTime();
+    }
+
+    /**
+     * Runs a function on the live game, expanding it first if it was idle.
+     * The game counts as used, so it won't be compacted until it goes idle
+     * again. The function must not keep the game or return it.
+     *
+     * @param action what to do with the game
+     * @return whatever the function returns
+     */
+    public synchronized <R> R withGame(Function<ChessGame, R> action) {
+        return action.apply(live());
+    }
+
+    /**
+     * Makes a move in the game, expanding it first if it was idle
+     *
+     * @param move the move to make
+     * @throws InvalidMoveException if the move isn't legal
+     */
+    public synchronized void makeMove(ChessMove move) throws InvalidMoveException {
+        live().makeMove(move);
+    }
+
+    private ChessGame live() {
+        if (active == null) {
+            active = idle.expand();
+            idle = null;
+        }
+        lastUsed = System.nanoTime();
+        return active;
+    }
+
+    /**
+     * @return True if the game is held in its compact form
+     */
+    public synchronized boolean isIdle() {
+        return active == null;
+    }
+
+    /**
+     * Switches the game to its compact form. Does nothing if it already is.
+     */
+    public synchronized void compact() {
+        if (active != null) {
+            idle = active.compact();
+            active = null;
+        }
+    }
+
+    /**
+     * Compacts the game if it hasn't been used for the given time
+     *
+     * @param idleNanos how long the game has to have gone unused
+     * @return True if the game is now in its compact form
+     */
+    public synchronized boolean compactIfIdle(long idleNanos) {
+        if (active != null && System.nanoTime() - lastUsed >= idleNanos) {
+            compact();
+        }
+        return active == null;
+    }
+
+    /**
+     * @return approximate heap bytes taken by the game in its current form,
+     * this holder included
+     */
+    public synchronized long residentBytes() {
+        return Footprint.object(Footprint.fieldBytes(TieredGame.class))
+                + (active != null ? active.residentBytes() : idle.residentBytes());
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key
+ * per piece on its square plus keys for the side to move, the castling
+ * rights and the en passant file, so a move only has to XOR out what
+ * changed instead of rehashing the board.
+ * <p>
+ * The keys come from a fixed SplitMix64 sequence rather than
+ * {@link java.util.Random}, so a key means the same position on every JVM
+ * and can be stored.
+ */
+public final class Zobrist {
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long state = 0x240C4E55L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            PIECE_SQUARE[i] = mix(state);
+        }
+        //no castling rights hashes to nothing
+        for (int i = 1; i < CASTLING.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[i] = mix(state);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[(pieceIndex << 6) | square];
+    }
+
+    /**
+     * @param rights castling rights mask, one bit per king/side combination
+     */
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    static long enPassant(int square) {
+        return EN_PASSANT_FILE[square & 7];
+    }
+}
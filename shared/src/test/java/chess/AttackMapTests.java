@@ -0,0 +1,68 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class AttackMapTests {
+    private static void assertMapsMatchScan(ChessBoard tracked) {
+        ChessBoard scanned = tracked.copy();
+        scanned.setAttackTracking(false);
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            assertEquals(scanned.getAttackedSquares(color), tracked.getAttackedSquares(color));
+            for (int square = 0; square < 64; square++) {
+                ChessPosition position = Bitboards.position(square);
+                assertEquals(scanned.countAttackers(position, color), tracked.countAttackers(position, color));
+                assertEquals(scanned.isSquareAttacked(position, color), tracked.isSquareAttacked(position, color));
+            }
+        }
+    }
+
+    @Test
+    void getAttackedSquares_StartingPosition() {
+        ChessBoard board = new ChessBoard();
+        board.setAttackTracking(true);
+        board.resetBoard();
+        //all of rows 2 and 3, and row 1 apart from the corners
+        assertEquals(0xFFFF7EL, board.getAttackedSquares(ChessGame.TeamColor.WHITE));
+        //b2 and d2 pawns and the b1 knight
+        assertEquals(3, board.countAttackers(new ChessPosition(3, 3), ChessGame.TeamColor.WHITE));
+        assertEquals(0, board.countAttackers(new ChessPosition(4, 3), ChessGame.TeamColor.WHITE));
+        assertMapsMatchScan(board);
+    }
+
+    @Test
+    void getAttackedSquares_RandomGames() {
+        Random random = new Random(240);
+        for (int game = 0; game < 20; game++) {
+            ChessGame chessGame = ChessGame.fromFen(game % 2 == 0 ? ChessGame.STARTING_FEN : KIWIPETE);
+            chessGame.getBoard().setAttackTracking(true);
+            MoveList moves = new MoveList();
+            int played = 0;
+            for (int ply = 0; ply < 60; ply++) {
+                moves.clear();
+                if (chessGame.legalMoves(moves) == 0) {
+                    break;
+                }
+                chessGame.doMove(moves.get(random.nextInt(moves.size())));
+                played++;
+                assertMapsMatchScan(chessGame.getBoard());
+            }
+            for (int i = 0; i < played; i++) {
+                chessGame.undoMove();
+            }
+            assertMapsMatchScan(chessGame.getBoard());
+        }
+    }
+
+    @Test
+    void setAttackTracking_PerftUnchanged() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        game.getBoard().setAttackTracking(true);
+        assertEquals(97_862, Perft.perft(game, 3));
+        assertMapsMatchScan(game.getBoard());
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttacksTests {
+
+    private static long walk(int square, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    void sliders_MatchRayWalk() {
+        int[][] rookDirections = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        int[][] bishopDirections = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        Random random = new Random(240);
+        for (int i = 0; i < 2000; i++) {
+            long occupancy = random.nextLong() & random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                assertEquals(walk(square, occupancy, rookDirections), Attacks.rook(square, occupancy));
+                assertEquals(walk(square, occupancy, bishopDirections), Attacks.bishop(square, occupancy));
+            }
+        }
+    }
+
+    @Test
+    void sliders_EmptyBoard() {
+        int a1 = Bitboards.square(1, 1);
+        assertEquals((Bitboards.FILE_A | Bitboards.RANK_1) & ~Bitboards.bit(a1), Attacks.rook(a1, 0));
+        assertEquals(27, Long.bitCount(Attacks.queen(Bitboards.square(4, 4), 0)));
+    }
+
+    @Test
+    void leapers_Corners() {
+        int a1 = Bitboards.square(1, 1);
+        assertEquals(Bitboards.bit(Bitboards.square(2, 3)) | Bitboards.bit(Bitboards.square(3, 2)), Attacks.knight(a1));
+        assertEquals(3, Long.bitCount(Attacks.king(a1)));
+        assertEquals(Bitboards.bit(Bitboards.square(3, 2)), Attacks.pawn(Bitboards.WHITE, Bitboards.square(2, 1)));
+        assertEquals(0L, Attacks.pawn(Bitboards.BLACK, a1));
+    }
+}
@@ -0,0 +1,78 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessBoardBitboardTests {
+
+    private ChessBoard board;
+
+    @BeforeEach
+    void setup() {
+        board = new ChessBoard();
+        board.resetBoard();
+    }
+
+    @Test
+    void getPieceBitboard_StartingPosition() {
+        assertEquals(0xFF00L, board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(0x00FF000000000000L, board.getPieceBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        assertEquals(Bitboards.bit(4), board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        assertEquals(Bitboards.bit(60), board.getPieceBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        assertEquals(0xFFFF00000000FFFFL, board.getOccupancy());
+    }
+
+    @Test
+    void getPieceBitboard_FollowsAddPiece() {
+        ChessPosition e2 = new ChessPosition(2, 5);
+        ChessPosition e4 = new ChessPosition(4, 5);
+        ChessPiece pawn = board.getPiece(e2);
+        board.addPiece(e2, null);
+        board.addPiece(e4, pawn);
+
+        long pawns = board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        assertEquals(0L, pawns & Bitboards.bit(Bitboards.square(e2)));
+        assertNotEquals(0L, pawns & Bitboards.bit(Bitboards.square(e4)));
+        assertEquals(32, Long.bitCount(board.getOccupancy()));
+    }
+
+    @Test
+    void getPieceBitboard_AfterGsonRoundTrip() {
+        Gson gson = new Gson();
+        ChessBoard copy = gson.fromJson(gson.toJson(board), ChessBoard.class);
+
+        assertEquals(board, copy);
+        assertEquals(board.getOccupancy(ChessGame.TeamColor.BLACK), copy.getOccupancy(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void findPiece_Positive() {
+        assertEquals(new ChessPosition(8, 5), board.findPiece(ChessPiece.PieceType.KING, ChessGame.TeamColor.BLACK));
+        assertEquals(16, board.findAllPiecesOfColor(ChessGame.TeamColor.WHITE).size());
+    }
+
+    @Test
+    void findPiece_Negative() {
+        assertNull(new ChessBoard().findPiece(ChessPiece.PieceType.KING, ChessGame.TeamColor.WHITE));
+        assertTrue(new ChessBoard().findAllPiecesOfColor(ChessGame.TeamColor.BLACK).isEmpty());
+    }
+
+    @Test
+    void isSquareAttacked_Positive() {
+        assertTrue(board.isSquareAttacked(new ChessPosition(3, 6), ChessGame.TeamColor.WHITE));
+        assertTrue(board.isSquareAttacked(new ChessPosition(6, 1), ChessGame.TeamColor.BLACK));
+
+        board.addPiece(new ChessPosition(7, 4), null);
+        board.addPiece(new ChessPosition(5, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        assertTrue(board.isSquareAttacked(new ChessPosition(8, 5), ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void isSquareAttacked_Negative() {
+        assertFalse(board.isSquareAttacked(new ChessPosition(4, 5), ChessGame.TeamColor.WHITE));
+        assertFalse(board.isSquareAttacked(new ChessPosition(8, 5), ChessGame.TeamColor.WHITE));
+        assertFalse(new ChessBoard().isSquareAttacked(new ChessPosition(1, 1), ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,136 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class ChessGameUndoTests {
+
+    private ChessGame game;
+
+    @BeforeEach
+    void setup() {
+        game = new ChessGame();
+    }
+
+    @Test
+    void undoMove_RestoresCaptures() {
+        ChessBoard start = new ChessBoard();
+        start.resetBoard();
+
+        game.doMove(move(2, 5, 4, 5, null));
+        game.doMove(move(7, 4, 5, 4, null));
+        game.doMove(move(4, 5, 5, 4, null));
+        game.doMove(move(8, 4, 5, 4, null));
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+
+        for (int i = 0; i < 4; i++) {
+            game.undoMove();
+        }
+        assertEquals(start, game.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void undoMove_RestoresPromotionAndCastlingFlags() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(7, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        game.setBoard(board);
+
+        game.doMove(move(7, 1, 8, 2, ChessPiece.PieceType.KNIGHT));
+        game.doMove(move(8, 5, 8, 4, null));
+        assertEquals(ChessPiece.PieceType.KNIGHT, board.getPiece(new ChessPosition(8, 2)).getPieceType());
+        assertTrue(game.hasBlackKingMoved());
+
+        game.undoMove();
+        game.undoMove();
+        assertFalse(game.hasBlackKingMoved());
+        assertEquals(ChessPiece.PieceType.PAWN, board.getPiece(new ChessPosition(7, 1)).getPieceType());
+        assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(8, 2)).getPieceType());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void undoMove_Negative() {
+        assertThrows(IllegalStateException.class, () -> game.undoMove());
+    }
+
+    @Test
+    void undoMove_RestoresCastleAndEnPassant() {
+        String boardText = """
+                | | | | |k| | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | |R|
+                """;
+        ChessBoard board = TestUtilities.loadBoard(boardText);
+        game.setBoard(board);
+        long startKey = game.getZobristKey();
+
+        game.doMove(move(1, 5, 1, 7, null));
+        assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(1, 6)).getPieceType());
+        assertTrue(game.hasWhiteKingMoved());
+        game.doMove(move(7, 4, 5, 4, null));
+        game.doMove(move(5, 5, 6, 4, null));
+        assertNull(board.getPiece(new ChessPosition(5, 4)));
+
+        game.undoMove();
+        assertEquals(ChessPiece.PieceType.PAWN, board.getPiece(new ChessPosition(5, 4)).getPieceType());
+        assertTrue(game.validMoves(new ChessPosition(5, 5)).contains(move(5, 5, 6, 4, null)));
+        game.undoMove();
+        game.undoMove();
+        assertEquals(TestUtilities.loadBoard(boardText), board);
+        assertFalse(game.hasWhiteKingMoved());
+        assertEquals(startKey, game.getZobristKey());
+    }
+
+    @Test
+    void setBoard_CastlingRightsFromHomeSquares() {
+        game.doMove(move(2, 5, 4, 5, null));
+        game.doMove(move(7, 5, 5, 5, null));
+        game.doMove(move(1, 5, 2, 5, null));
+        assertTrue(game.hasWhiteKingMoved());
+
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | |R|
+                """));
+        assertFalse(game.hasWhiteKingRookMoved());
+        assertTrue(game.hasWhiteQueenRookMoved());
+        assertTrue(game.hasBlackKingRookMoved());
+        assertFalse(game.hasBlackQueenRookMoved());
+        assertEquals("r3k3/8/8/8/8/8/8/4K2R b Kq - 0 1", game.toFen());
+
+        //a captured rook takes its castling right with it
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        game.doMove(move(1, 1, 8, 1, null));
+        assertTrue(game.hasBlackQueenRookMoved());
+        assertTrue(game.hasWhiteQueenRookMoved());
+    }
+}
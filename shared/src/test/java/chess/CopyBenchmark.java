@@ -0,0 +1,67 @@
+package chess;
+
+import com.google.gson.Gson;
+
+/**
+ * Times {@link ChessGame#copy()} against cloning a game with a Gson round
+ * trip, the way games were copied before copy() existed.
+ * <p>
+ * Run {@code java -cp shared/target/classes:shared/target/test-classes:<gson>
+ * chess.CopyBenchmark [iterations]} after {@code mvn test-compile}.
+ */
+public final class CopyBenchmark {
+
+    private CopyBenchmark() {
+    }
+
+    /**
+     * @return average nanoseconds per copy with ChessGame.copy()
+     */
+    public static double timeCopy(ChessGame game, int iterations) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += game.copy().getMoveCount();
+        }
+        long nanos = System.nanoTime() - start;
+        //use the result so the copies can't be optimized away
+        if (checksum < 0) {
+            System.out.println(checksum);
+        }
+        return (double) nanos / iterations;
+    }
+
+    /**
+     * @return average nanoseconds per copy with Gson toJson and fromJson
+     */
+    public static double timeGson(ChessGame game, int iterations) {
+        Gson gson = new Gson();
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += gson.fromJson(gson.toJson(game), ChessGame.class).getMoveCount();
+        }
+        long nanos = System.nanoTime() - start;
+        if (checksum < 0) {
+            System.out.println(checksum);
+        }
+        return (double) nanos / iterations;
+    }
+
+    public static void main(String[] args) throws InvalidMoveException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        //a game a few moves in, so there is history to copy
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+
+        //warm up the JIT before timing
+        timeCopy(game, iterations);
+        timeGson(game, iterations / 10);
+
+        System.out.printf("copy(): %,.0f ns per game%n", timeCopy(game, iterations));
+        System.out.printf("Gson:   %,.0f ns per game%n", timeGson(game, iterations / 10));
+    }
+}
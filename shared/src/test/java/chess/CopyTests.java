@@ -0,0 +1,88 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class CopyTests {
+
+    @Test
+    void boardCopy_Independent() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard copy = board.copy();
+        assertEquals(board, copy);
+        assertEquals(board.getZobristKey(), copy.getZobristKey());
+
+        copy.addPiece(new ChessPosition(2, 5), null);
+        assertNotEquals(board, copy);
+        assertNotNull(board.getPiece(new ChessPosition(2, 5)));
+        assertEquals(31, Long.bitCount(copy.getOccupancy()));
+        assertEquals(32, Long.bitCount(board.getOccupancy()));
+    }
+
+    @Test
+    void boardCopy_BeforeIndexBuilt() {
+        ChessBoard board = new Gson().fromJson(new Gson().toJson(new ChessGame().getBoard()), ChessBoard.class);
+        ChessBoard copy = board.copy();
+        assertEquals(new ChessGame().getBoard(), copy);
+    }
+
+    @Test
+    void gameCopy_KeepsStateAndHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(8, 7, 6, 6));
+
+        ChessGame copy = game.copy();
+        assertEquals(game.toFen(), copy.toFen());
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+        assertArrayEquals(game.getMoveHistory(), copy.getMoveHistory());
+
+        copy.makeMove(move(1, 7, 3, 6));
+        assertEquals(3, copy.getMoveCount());
+        assertEquals(2, game.getMoveCount());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+
+        copy.undoMove();
+        copy.undoMove();
+        assertEquals(1, copy.getMoveCount());
+        assertEquals(ChessGame.TeamColor.BLACK, copy.getTeamTurn());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void gameCopy_SharedUntilWritten() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        ChessGame copy = game.copy();
+
+        //each side writes to arrays and rows the other still holds
+        game.makeMove(move(7, 5, 5, 5));
+        copy.makeMove(move(7, 4, 5, 4));
+        assertNull(copy.getBoard().getPiece(new ChessPosition(7, 4)));
+        assertNotNull(game.getBoard().getPiece(new ChessPosition(7, 4)));
+        assertEquals(move(7, 5, 5, 5), game.getMove(1));
+        assertEquals(move(7, 4, 5, 4), copy.getMove(1));
+
+        copy.undoMove();
+        copy.undoMove();
+        assertEquals(new ChessGame().toFen(), copy.toFen());
+        game.undoMove();
+        assertEquals(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").getBoard(),
+                game.getBoard());
+    }
+
+    @Test
+    void gameCopy_MatchesGsonRoundTrip() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 4, 4, 4));
+        ChessGame viaGson = gson.fromJson(gson.toJson(game), ChessGame.class);
+        ChessGame copy = game.copy();
+        assertEquals(viaGson, copy);
+        assertEquals(viaGson.toFen(), copy.toFen());
+    }
+}
@@ -0,0 +1,159 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class DrawRuleTests {
+
+    @Test
+    void hasInsufficientMaterial_Positive() {
+        assertTrue(game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """).hasInsufficientMaterial());
+        assertTrue(game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |N| | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """).hasInsufficientMaterial());
+        //bishops on c1 and f8 are both on dark squares
+        assertTrue(game("""
+                | | | | |k|b| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |B| |K| | | |
+                """).hasInsufficientMaterial());
+    }
+
+    @Test
+    void hasInsufficientMaterial_Negative() {
+        assertFalse(new ChessGame().hasInsufficientMaterial());
+        assertFalse(game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |P|
+                | | | | |K| | | |
+                """).hasInsufficientMaterial());
+        assertFalse(game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |N| |B|K| | | |
+                """).hasInsufficientMaterial());
+    }
+
+    @Test
+    void hasInsufficientMaterial_EndsGame() throws InvalidMoveException {
+        ChessGame game = game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |r| | | | |
+                | | | | |K| | | |
+                """);
+        assertEquals(1, game.getBoard().countPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 4), null));
+        assertEquals(GameStatus.State.DRAW_BY_INSUFFICIENT_MATERIAL, game.getStatus().state());
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    void makeMove_StalemateEndsGame() throws InvalidMoveException {
+        ChessGame game = game("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |Q| | | | | |
+                """);
+        game.makeMove(new ChessMove(new ChessPosition(1, 3), new ChessPosition(7, 3), null));
+        assertEquals(GameStatus.State.STALEMATE, game.getStatus().state());
+        assertTrue(game.isGameOver());
+
+        game.undoMove();
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    void isFiftyMoveRule_Positive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setHalfmoveClock(99);
+        assertFalse(game.isFiftyMoveRule());
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertEquals(100, game.getHalfmoveClock());
+        assertTrue(game.isFiftyMoveRule());
+        assertFalse(game.isSeventyFiveMoveRule());
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+        assertFalse(game.isGameOver());
+        assertTrue(game.canClaimDraw());
+    }
+
+    @Test
+    void isSeventyFiveMoveRule_Positive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setHalfmoveClock(149);
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertTrue(game.isSeventyFiveMoveRule());
+        assertEquals(GameStatus.State.DRAW_BY_SEVENTY_FIVE_MOVE_RULE, game.getStatus().state());
+        assertTrue(game.isGameOver());
+        assertFalse(game.canClaimDraw());
+
+        game.undoMove();
+        assertEquals(149, game.getHalfmoveClock());
+        assertFalse(game.isGameOver());
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+    }
+
+    @Test
+    void getStatus_SeesHalfmoveClockChange() {
+        ChessGame game = new ChessGame();
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+        game.setHalfmoveClock(150);
+        assertEquals(GameStatus.State.DRAW_BY_SEVENTY_FIVE_MOVE_RULE, game.getStatus().state());
+        game.setHalfmoveClock(120);
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+    }
+
+    @Test
+    void isFiftyMoveRule_Negative() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setHalfmoveClock(99);
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(0, game.getHalfmoveClock());
+        assertFalse(game.isFiftyMoveRule());
+
+        game.undoMove();
+        assertEquals(99, game.getHalfmoveClock());
+    }
+}
@@ -0,0 +1,27 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FootprintTests {
+
+    @Test
+    void fieldBytes_CompactGame() {
+        //four longs, three ints and two references
+        assertEquals(4 * 8 + 3 * 4 + 2 * Footprint.REFERENCE, Footprint.fieldBytes(CompactGame.class));
+    }
+
+    @Test
+    void fieldBytes_ChessGame() {
+        //eight references, nine ints, one long and three booleans
+        assertEquals(8 * Footprint.REFERENCE + 9 * 4 + 8 + 3, Footprint.fieldBytes(ChessGame.class));
+    }
+
+    @Test
+    void object_Aligned() {
+        assertEquals(16, Footprint.object(4));
+        assertEquals(24, Footprint.object(5));
+        assertEquals(24, Footprint.array(1, 8));
+    }
+}
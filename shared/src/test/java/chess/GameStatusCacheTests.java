@@ -0,0 +1,60 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusCacheTests {
+
+    private ChessGame game;
+
+    @BeforeEach
+    void setup() throws InvalidMoveException {
+        game = new ChessGame();
+        //fool's mate
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+    }
+
+    @Test
+    void getStatus_Checkmate() throws InvalidMoveException {
+        assertEquals(new GameStatus(GameStatus.State.ONGOING, ChessGame.TeamColor.BLACK), game.getStatus());
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        GameStatus status = game.getStatus();
+        assertEquals(GameStatus.State.CHECKMATE, status.state());
+        assertEquals(ChessGame.TeamColor.WHITE, status.sideToMove());
+        assertTrue(status.isGameOver());
+        assertSame(status, game.getStatus());
+    }
+
+    @Test
+    void makeMove_CheckmateEndsGame() throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        assertTrue(game.isGameOver());
+        assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null)));
+
+        game.undoMove();
+        assertFalse(game.isGameOver());
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+    }
+
+    @Test
+    void getStatus_RecomputedAfterChange() {
+        game.doMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        assertEquals(GameStatus.State.CHECKMATE, game.getStatus().state());
+
+        game.undoMove();
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+
+        //editing the board directly also invalidates the cached status
+        game.getBoard().addPiece(new ChessPosition(4, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        game.getBoard().addPiece(new ChessPosition(8, 4), null);
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(GameStatus.State.CHECKMATE, game.getStatus().state());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+    }
+}
@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class LegalMoveIteratorTests {
+    private static final String[] FENS = {
+            ChessGame.STARTING_FEN,
+            KIWIPETE,
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            //double check from the knight and the rook
+            "4k3/8/3N4/8/8/8/8/4R1K1 b - - 0 1",
+            //en passant out of check
+            "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1",
+    };
+
+    private static Set<Integer> iterated(ChessGame game) {
+        Set<Integer> moves = new HashSet<>();
+        LegalMoveIterator iterator = game.legalMoveIterator();
+        while (iterator.hasNext()) {
+            assertTrue(moves.add(iterator.nextInt()));
+        }
+        return moves;
+    }
+
+    private static long perft(ChessGame game, int depth) {
+        MoveList moves = new MoveList();
+        game.legalMoveIterator().forEachRemaining((int move) -> moves.add(move));
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    @Test
+    void legalMoveIterator_MatchesLegalMoves() {
+        for (String fen : FENS) {
+            ChessGame game = ChessGame.fromFen(fen);
+            MoveList moves = new MoveList();
+            game.legalMoves(moves);
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < moves.size(); i++) {
+                expected.add(moves.get(i));
+            }
+            assertEquals(expected, iterated(game), fen);
+        }
+    }
+
+    @Test
+    void legalMoveIterator_Perft() {
+        assertEquals(97862, perft(ChessGame.fromFen(FENS[1]), 3));
+        assertEquals(43238, perft(ChessGame.fromFen(FENS[2]), 4));
+        assertEquals(9467, perft(ChessGame.fromFen(FENS[3]), 3));
+    }
+
+    @Test
+    void legalMoveIterator_CapturesFirst() {
+        ChessGame game = ChessGame.fromFen(FENS[1]);
+        LegalMoveIterator iterator = game.legalMoveIterator();
+        boolean quiet = false;
+        int captures = 0;
+        while (iterator.hasNext()) {
+            int move = iterator.nextInt();
+            if (Move.hasFlag(move, Move.CAPTURE)) {
+                assertFalse(quiet);
+                assertFalse(iterator.isPastCaptures());
+                captures++;
+            }
+            else {
+                quiet = true;
+                assertTrue(iterator.isPastCaptures());
+            }
+        }
+        assertEquals(8, captures);
+    }
+
+    @Test
+    void legalMoveIterator_Exhausted() {
+        //black is checkmated
+        ChessGame game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        LegalMoveIterator iterator = game.legalMoveIterator();
+        assertFalse(iterator.hasNext());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::nextInt);
+        assertFalse(game.legalMoveIterator(ChessGame.TeamColor.BLACK).isPastCaptures());
+    }
+}
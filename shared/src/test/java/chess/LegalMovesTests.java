@@ -0,0 +1,122 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class LegalMovesTests {
+    @Test
+    void legalMoves_MatchesValidMovesPerPiece() {
+        for (String fen : new String[]{ChessGame.STARTING_FEN, KIWIPETE, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"}) {
+            ChessGame game = ChessGame.fromFen(fen);
+            Set<ChessMove> perPiece = new HashSet<>();
+            for (ChessPosition position : game.getBoard().findAllPiecesOfColor(game.getTeamTurn())) {
+                perPiece.addAll(game.validMoves(position));
+            }
+            Collection<ChessMove> moves = game.legalMoves();
+            assertEquals(perPiece.size(), moves.size(), fen);
+            assertEquals(perPiece, new HashSet<>(moves), fen);
+        }
+    }
+
+    @Test
+    void legalMoves_OnlySideToMove() {
+        ChessGame game = new ChessGame();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        for (ChessMove move : game.legalMoves()) {
+            assertTrue(move.getStartPosition().getRow() >= 7);
+        }
+    }
+
+    @Test
+    void legalMoves_Packed() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        MoveList moves = new MoveList();
+        moves.add(Move.NONE);
+        assertEquals(48, game.legalMoves(moves));
+        assertEquals(49, moves.size());
+
+        int castles = 0;
+        for (int i = 1; i < moves.size(); i++) {
+            if (Move.hasFlag(moves.get(i), Move.CASTLE)) {
+                castles++;
+            }
+        }
+        assertEquals(2, castles);
+    }
+
+    @Test
+    void isLegal_MatchesValidMoves() {
+        String[] fens = {
+                ChessGame.STARTING_FEN,
+                KIWIPETE,
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                //en passant that would uncover a rook on the king's row
+                "8/8/8/KPp4r/8/8/8/7k w - c6 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        };
+        ChessPiece.PieceType[] promotions = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT,
+                ChessPiece.PieceType.KING};
+        for (String fen : fens) {
+            ChessGame game = ChessGame.fromFen(fen);
+            for (int from = 0; from < 64; from++) {
+                ChessPosition start = Bitboards.position(from);
+                Collection<ChessMove> valid = game.validMoves(start);
+                for (int to = 0; to < 64; to++) {
+                    for (ChessPiece.PieceType promotion : promotions) {
+                        ChessMove move = new ChessMove(start, Bitboards.position(to), promotion);
+                        assertEquals(valid != null && valid.contains(move), game.isLegal(move), fen + " " + from + "->" + to);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void isLegal_OffBoard() {
+        ChessGame game = new ChessGame();
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(2, 5), new ChessPosition(9, 5), null)));
+        assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(0, 5), new ChessPosition(2, 5), null)));
+    }
+
+    @Test
+    void countLegalMoves_MatchesGeneratedMoves() {
+        String[] fens = {
+                ChessGame.STARTING_FEN,
+                KIWIPETE,
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        };
+        for (String fen : fens) {
+            ChessGame game = ChessGame.fromFen(fen);
+            MoveList root = new MoveList();
+            game.legalMoves(root);
+            for (int i = 0; i < root.size(); i++) {
+                game.doMove(root.get(i));
+                MoveList replies = new MoveList();
+                int expected = game.legalMoves(replies);
+                assertEquals(expected, game.countLegalMoves(game.getTeamTurn()), fen);
+                assertEquals(expected > 0, game.hasLegalMove(game.getTeamTurn()), fen);
+                game.undoMove();
+            }
+            assertEquals(root.size(), game.countLegalMoves(game.getTeamTurn()), fen);
+        }
+    }
+
+    @Test
+    void hasLegalMove_Negative() {
+        //checkmate and stalemate
+        assertFalse(ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3")
+                .hasLegalMove(ChessGame.TeamColor.WHITE));
+        ChessGame stalemate = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertFalse(stalemate.hasLegalMove(ChessGame.TeamColor.BLACK));
+        assertEquals(0, stalemate.countLegalMoves(ChessGame.TeamColor.BLACK));
+        assertTrue(stalemate.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,73 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class MoveGeneratorTests {
+
+    @Test
+    void validMoves_PinnedOffLine() {
+        //the bishop is pinned on the e-file and has nothing along it
+        ChessGame game = ChessGame.fromFen("4k3/4r3/8/8/8/8/4B3/4K3 w - - 0 1");
+        assertTrue(game.validMoves(new ChessPosition(2, 5)).isEmpty());
+    }
+
+    @Test
+    void validMoves_PinnedAlongLine() {
+        ChessGame game = ChessGame.fromFen("4k3/4r3/8/8/8/8/4R3/4K3 w - - 0 1");
+        Set<ChessMove> expected = new HashSet<>();
+        for (int row = 3; row <= 7; row++) {
+            expected.add(move(2, 5, row, 5));
+        }
+        assertEquals(expected, new HashSet<>(game.validMoves(new ChessPosition(2, 5))));
+    }
+
+    @Test
+    void validMoves_PinnedPawnTakesPinner() {
+        //pinned on the c3-e1 diagonal, so only the capture on c3 stays on it
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/2b5/3P4/4K3 w - - 0 1");
+        assertEquals(Set.of(move(2, 4, 3, 3)), new HashSet<>(game.validMoves(new ChessPosition(2, 4))));
+    }
+
+    @Test
+    void validMoves_BlockOrCaptureChecker() {
+        //only a king move, a block on e2 or e3, or taking the rook answers the check
+        ChessGame game = ChessGame.fromFen("4k3/7B/8/8/4r3/8/7P/2N1K3 w - - 0 1");
+        assertEquals(Set.of(move(1, 3, 2, 5)), new HashSet<>(game.validMoves(new ChessPosition(1, 3))));
+        assertEquals(Set.of(move(7, 8, 4, 5)), new HashSet<>(game.validMoves(new ChessPosition(7, 8))));
+        assertTrue(game.validMoves(new ChessPosition(2, 8)).isEmpty());
+    }
+
+    @Test
+    void legalMoves_DoubleCheck() {
+        //the queen could take the knight, but that leaves the rook's check
+        ChessGame game = ChessGame.fromFen("3qk3/8/3N4/8/8/8/8/4R1K1 b - - 0 1");
+        assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        assertTrue(game.validMoves(new ChessPosition(8, 4)).isEmpty());
+        assertFalse(game.legalMoves().isEmpty());
+        for (ChessMove legal : game.legalMoves()) {
+            assertEquals(new ChessPosition(8, 5), legal.getStartPosition());
+        }
+    }
+
+    @Test
+    void validMoves_EnPassantExposesKing() {
+        //taking on c6 clears both pawns off the fifth rank and opens the rook onto the king
+        ChessGame game = ChessGame.fromFen("8/8/8/KPp4r/8/8/8/4k3 w - c6 0 1");
+        assertEquals(Set.of(move(5, 2, 6, 2)), new HashSet<>(game.validMoves(new ChessPosition(5, 2))));
+    }
+
+    @Test
+    void makeMove_EnPassantDiscoversCheck() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("8/8/8/k2pP2R/8/8/8/4K3 w - d6 0 1");
+        assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+        game.makeMove(move(5, 5, 6, 4));
+        assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        assertNull(game.getBoard().getPiece(new ChessPosition(5, 4)));
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class MoveHistoryTests {
+
+    @Test
+    void toCode_RoundTrip() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to += 7) {
+                ChessMove plain = new ChessMove(Bitboards.position(from), Bitboards.position(to), null);
+                assertEquals(plain, ChessMove.fromCode(plain.toCode()));
+                for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                    ChessMove promotion = new ChessMove(Bitboards.position(from), Bitboards.position(to), type);
+                    assertEquals(promotion, ChessMove.fromCode(promotion.toCode()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void toCode_OffBoard() {
+        assertThrows(IllegalArgumentException.class, () -> move(0, 1, 1, 1, null).toCode());
+        assertThrows(IllegalArgumentException.class, () -> move(1, 1, 1, 9, null).toCode());
+    }
+
+    @Test
+    void fromCode_BadPromotion() {
+        assertThrows(IllegalArgumentException.class, () -> ChessMove.fromCode((short) 0x7000));
+        assertThrows(IllegalArgumentException.class, () -> ChessMove.fromCode((short) 0x7ABC));
+    }
+
+    @Test
+    void getMoveHistory_ReplaysGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5, null));
+        game.makeMove(move(7, 4, 5, 4, null));
+        game.makeMove(move(4, 5, 5, 4, null));
+        game.makeMove(move(8, 4, 5, 4, null));
+
+        short[] history = game.getMoveHistory();
+        assertEquals(4, history.length);
+        assertEquals(move(4, 5, 5, 4, null), game.getMove(2));
+
+        ChessGame replayed = ChessGame.fromMoveHistory(history);
+        assertEquals(game.toFen(), replayed.toFen());
+        assertEquals(game.getZobristKey(), replayed.getZobristKey());
+    }
+
+    @Test
+    void getMoveHistory_Undo() {
+        ChessGame game = new ChessGame();
+        game.doMove(move(2, 5, 4, 5, null));
+        game.doMove(move(7, 5, 5, 5, null));
+        game.undoMove();
+        assertEquals(1, game.getMoveCount());
+        assertArrayEquals(new short[]{move(2, 5, 4, 5, null).toCode()}, game.getMoveHistory());
+        assertThrows(IndexOutOfBoundsException.class, () -> game.getMove(1));
+    }
+
+    @Test
+    void getMoveHistory_GsonWritesOnlyMovesPlayed() {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        //one more move than the buffer starts with, so it has grown and has spare capacity
+        for (int i = 0; i < 17; i++) {
+            int row = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 1 : 8;
+            boolean out = (i / 2) % 2 == 0;
+            game.doMove(out ? move(row, 7, row == 1 ? 3 : 6, 6, null) : move(row == 1 ? 3 : 6, 6, row, 7, null));
+        }
+        String json = gson.toJson(game);
+        assertEquals(17, gson.fromJson(json, JsonObject.class).getAsJsonArray("moveHistory").size());
+        assertArrayEquals(game.getMoveHistory(), gson.fromJson(json, ChessGame.class).getMoveHistory());
+    }
+
+    @Test
+    void fromMoveHistory_BadCodes() {
+        short e4 = move(2, 5, 4, 5, null).toCode();
+        assertThrows(InvalidMoveException.class, () -> ChessGame.fromMoveHistory(new short[]{e4, (short) 0x7000}));
+        //a pawn that doesn't reach the last row can't promote, and nothing promotes to a king
+        short e5 = move(7, 5, 5, 5, ChessPiece.PieceType.QUEEN).toCode();
+        assertThrows(InvalidMoveException.class, () -> ChessGame.fromMoveHistory(new short[]{e4, e5}));
+        short kingPromotion = move(2, 1, 4, 1, ChessPiece.PieceType.KING).toCode();
+        assertThrows(InvalidMoveException.class, () -> ChessGame.fromMoveHistory(new short[]{kingPromotion}));
+    }
+}
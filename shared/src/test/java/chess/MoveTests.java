@@ -0,0 +1,101 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveTests {
+
+    @Test
+    void of_RoundTrip() {
+        int[] flags = {Move.NONE, Move.CAPTURE, Move.DOUBLE_PUSH, Move.EN_PASSANT, Move.CASTLE};
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                assertEquals(Move.of(from, to, null, 0), Move.of(from, to));
+                for (int flag : flags) {
+                    for (ChessPiece.PieceType promotion : new ChessPiece.PieceType[]{null, ChessPiece.PieceType.QUEEN,
+                            ChessPiece.PieceType.KNIGHT}) {
+                        int move = Move.of(from, to, promotion, flag);
+                        assertEquals(from, Move.from(move));
+                        assertEquals(to, Move.to(move));
+                        assertEquals(promotion, Move.promotion(move));
+                        assertEquals(promotion != null, Move.isPromotion(move));
+                        for (int other : flags) {
+                            assertEquals(other != Move.NONE && other == flag, Move.hasFlag(move, other));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void of_EveryPromotion() {
+        for (ChessPiece.PieceType promotion : ChessPiece.PieceType.values()) {
+            assertEquals(promotion, Move.promotion(Move.of(52, 60, promotion, Move.CAPTURE)));
+        }
+    }
+
+    @Test
+    void chessMove_RoundTrip() {
+        ChessMove move = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.ROOK);
+        assertEquals(move, Move.toChessMove(Move.fromChessMove(move)));
+        ChessMove quiet = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        assertEquals(quiet, Move.toChessMove(Move.fromChessMove(quiet)));
+        //flags are dropped on the way out, so a flagged move converts to the same ChessMove
+        assertEquals(quiet, Move.toChessMove(Move.fromChessMove(quiet) | Move.CAPTURE));
+    }
+
+    @Test
+    void code_DropsFlags() {
+        int move = Move.of(12, 28, null, Move.DOUBLE_PUSH);
+        assertEquals(Move.of(12, 28), Move.fromCode(Move.toCode(move)));
+        int promotion = Move.of(49, 56, ChessPiece.PieceType.QUEEN, Move.CAPTURE);
+        assertEquals(Move.of(49, 56, ChessPiece.PieceType.QUEEN, 0), Move.fromCode(Move.toCode(promotion)));
+    }
+
+    @Test
+    void moveList_Grows() {
+        MoveList list = new MoveList(1);
+        assertTrue(list.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            list.add(Move.of(i & 63, (i * 7) & 63));
+        }
+        assertEquals(100, list.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Move.of(i & 63, (i * 7) & 63), list.get(i));
+        }
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add(Move.of(1, 2));
+        assertEquals(1, list.size());
+        assertEquals(Move.of(1, 2), list.get(0));
+    }
+
+    @Test
+    void moveList_RemoveAt() {
+        MoveList list = new MoveList();
+        list.add(Move.of(0, 1));
+        list.add(Move.of(0, 2));
+        list.add(Move.of(0, 3));
+        list.removeAt(0);
+        //the last move takes the removed one's place
+        assertEquals(2, list.size());
+        assertEquals(Move.of(0, 3), list.get(0));
+        assertEquals(Move.of(0, 2), list.get(1));
+    }
+
+    @Test
+    void moveList_ToChessMoves() {
+        MoveList list = new MoveList();
+        list.add(Move.of(12, 28, null, Move.DOUBLE_PUSH));
+        list.add(Move.of(52, 60, ChessPiece.PieceType.QUEEN, 0));
+        assertEquals(List.of(
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                new ChessMove(new ChessPosition(7, 5), new ChessPosition(8, 5), ChessPiece.PieceType.QUEEN)),
+                list.toChessMoves());
+    }
+}
@@ -0,0 +1,41 @@
+package chess;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Times {@link Perft} on the starting position, split by root move or
+ * searched in parallel.
+ * <p>
+ * Run {@code java -cp shared/target/classes:shared/target/test-classes
+ * chess.PerftBenchmark [depth] [parallel]} after {@code mvn test-compile}.
+ */
+public final class PerftBenchmark {
+
+    private PerftBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        boolean parallel = args.length > 1 && Boolean.parseBoolean(args[1]);
+        ChessGame game = new ChessGame();
+
+        //warm up the JIT before timing
+        Perft.perft(game, Math.min(depth, 4));
+
+        if (parallel) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            System.out.println("parallelism " + pool.getParallelism());
+            System.out.println("perft(" + depth + ") " + Perft.timedParallel(game, depth, pool));
+        }
+        else {
+            for (Map.Entry<ChessMove, Long> entry : Perft.divide(game, depth - 1).entrySet()) {
+                ChessMove move = entry.getKey();
+                System.out.println(move.getStartPosition().getRow() + "," + move.getStartPosition().getColumn()
+                        + " -> " + move.getEndPosition().getRow() + "," + move.getEndPosition().getColumn()
+                        + ": " + entry.getValue());
+            }
+            System.out.println("perft(" + depth + ") " + Perft.timed(game, depth));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+/**
+ * Node counts from the published perft tables
+ * (https://www.chessprogramming.org/Perft_Results)
+ */
+public class PerftTests {
+
+    private static final String POSITION_3 = """
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """;
+
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    void perft_StartingPosition() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, Perft.perft(game, 1));
+        assertEquals(400, Perft.perft(game, 2));
+        assertEquals(8_902, Perft.perft(game, 3));
+        assertEquals(197_281, Perft.perft(game, 4));
+        assertEquals(4_865_609, Perft.perft(game, 5));
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    void perft_Kiwipete() {
+        //castling both ways, en passant and promotions all show up by depth 3
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        assertEquals(48, Perft.perft(game, 1));
+        assertEquals(2_039, Perft.perft(game, 2));
+        assertEquals(97_862, Perft.perft(game, 3));
+    }
+
+    @Test
+    void perft_Position3() {
+        ChessGame game = game(POSITION_3);
+        assertEquals(14, Perft.perft(game, 1));
+        assertEquals(191, Perft.perft(game, 2));
+        assertEquals(2_812, Perft.perft(game, 3));
+        assertEquals(43_238, Perft.perft(game, 4));
+    }
+
+    @Test
+    void perft_Position4() {
+        //promotions with check, and castling rights for black only
+        ChessGame game = ChessGame.fromFen(POSITION_4);
+        assertEquals(6, Perft.perft(game, 1));
+        assertEquals(264, Perft.perft(game, 2));
+        assertEquals(9_467, Perft.perft(game, 3));
+    }
+
+    @Test
+    void perft_Position5() {
+        ChessGame game = ChessGame.fromFen(POSITION_5);
+        assertEquals(44, Perft.perft(game, 1));
+        assertEquals(1_486, Perft.perft(game, 2));
+        assertEquals(62_379, Perft.perft(game, 3));
+    }
+
+    @Test
+    @Tag("slow")
+    void perft_KiwipeteDeep() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        assertEquals(4_085_603, Perft.perft(game, 4));
+    }
+
+    @Test
+    @Tag("slow")
+    void perft_Position3Deep() {
+        ChessGame game = game(POSITION_3);
+        assertEquals(674_624, Perft.perft(game, 5));
+        assertEquals(11_030_083, Perft.perft(game, 6));
+    }
+
+    @Test
+    @Tag("slow")
+    void perft_Position4Deep() {
+        ChessGame game = ChessGame.fromFen(POSITION_4);
+        assertEquals(422_333, Perft.perft(game, 4));
+        assertEquals(15_833_292, Perft.perft(game, 5));
+    }
+
+    @Test
+    @Tag("slow")
+    void perft_Position5Deep() {
+        ChessGame game = ChessGame.fromFen(POSITION_5);
+        assertEquals(2_103_487, Perft.perft(game, 4));
+        assertEquals(89_941_194, Perft.perft(game, 5));
+    }
+
+    @Test
+    void divide_SumsToPerft() {
+        ChessGame game = new ChessGame();
+        var counts = Perft.divide(game, 3);
+        assertEquals(20, counts.size());
+        assertEquals(8_902, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void parallelPerft_MatchesSerial() {
+        ChessGame game = new ChessGame();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(197_281, Perft.parallelPerft(game, 4, pool));
+            assertEquals(20, Perft.parallelPerft(game, 1, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(new ChessGame(), game);
+    }
+}
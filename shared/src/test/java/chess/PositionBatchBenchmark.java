@@ -0,0 +1,61 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * Times {@link PositionBatch#attackedSquares} against asking each board for
+ * its attacked squares in turn.
+ * <p>
+ * Run {@code java -cp shared/target/classes:shared/target/test-classes
+ * chess.PositionBatchBenchmark [positions]} after {@code mvn test-compile}.
+ */
+public final class PositionBatchBenchmark {
+
+    private PositionBatchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        PositionBatch batch = new PositionBatch(count);
+        ChessBoard[] boards = new ChessBoard[count];
+        //positions from random games, so the pieces are spread around
+        Random random = new Random(23);
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        for (int i = 0; i < count; i++) {
+            moves.clear();
+            if (game.getMoveCount() > 120 || game.legalMoves(moves) == 0) {
+                game = new ChessGame();
+                moves.clear();
+                game.legalMoves(moves);
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            batch.add(game);
+            boards[i] = game.getBoard().copy();
+        }
+
+        long[] out = new long[count];
+        long checksum = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (ChessBoard board : boards) {
+                checksum += board.getAttackedSquares(ChessGame.TeamColor.WHITE);
+                checksum += board.getAttackedSquares(ChessGame.TeamColor.BLACK);
+            }
+            long boardNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            batch.attackedSquares(ChessGame.TeamColor.WHITE, out);
+            checksum += out[count - 1];
+            batch.attackedSquares(ChessGame.TeamColor.BLACK, out);
+            checksum += out[count - 1];
+            long batchNanos = System.nanoTime() - start;
+
+            System.out.printf("one board at a time: %,.0f positions/s   batch: %,.0f positions/s%n",
+                    count * 1e9 / boardNanos, count * 1e9 / batchNanos);
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+    }
+}
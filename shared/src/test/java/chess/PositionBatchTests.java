@@ -0,0 +1,65 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class PositionBatchTests {
+
+    private static List<ChessGame> randomPositions(int count) {
+        List<ChessGame> games = new ArrayList<>();
+        Random random = new Random(23);
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < count; i++) {
+            moves.clear();
+            if (game.getMoveCount() > 80 || game.legalMoves(moves) == 0) {
+                game = new ChessGame();
+                moves.clear();
+                game.legalMoves(moves);
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            games.add(game.copy());
+        }
+        return games;
+    }
+
+    @Test
+    void attackedSquares_MatchesBoard() {
+        List<ChessGame> games = randomPositions(2_000);
+        PositionBatch batch = new PositionBatch(16);
+        for (ChessGame game : games) {
+            batch.add(game);
+        }
+        assertEquals(games.size(), batch.size());
+
+        long[] out = new long[batch.size()];
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            batch.attackedSquares(color, out);
+            for (int i = 0; i < games.size(); i++) {
+                assertEquals(games.get(i).getBoard().getAttackedSquares(color), out[i], games.get(i).toFen());
+            }
+        }
+    }
+
+    @Test
+    void inCheck_MatchesGame() {
+        List<ChessGame> games = randomPositions(2_000);
+        PositionBatch batch = new PositionBatch(games.size());
+        games.forEach(batch::add);
+        boolean[] out = new boolean[batch.size()];
+        batch.inCheck(out);
+        int checks = 0;
+        for (int i = 0; i < games.size(); i++) {
+            ChessGame game = games.get(i);
+            assertEquals(game.isInCheck(game.getTeamTurn()), out[i], game.toFen());
+            checks += out[i] ? 1 : 0;
+        }
+        assertTrue(checks > 0);
+    }
+}
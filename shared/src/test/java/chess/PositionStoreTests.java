@@ -0,0 +1,74 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class PositionStoreTests {
+    @Test
+    void add_RoundTrip() {
+        PositionStore store = new PositionStore();
+        String[] fens = {
+                ChessGame.STARTING_FEN,
+                KIWIPETE,
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40",
+        };
+        for (String fen : fens) {
+            store.add(ChessGame.fromFen(fen));
+        }
+        assertEquals(fens.length, store.size());
+        for (int i = 0; i < fens.length; i++) {
+            ChessGame game = store.getGame(i);
+            assertEquals(fens[i], game.toFen());
+            assertEquals(ChessGame.fromFen(fens[i]).getZobristKey(), game.getZobristKey());
+            assertEquals(ChessGame.fromFen(fens[i]).getBoard(), store.getBoard(i));
+        }
+        assertEquals(ChessGame.TeamColor.BLACK, store.getTeamTurn(3));
+        assertEquals(new ChessGame().getBoard().getOccupancy(), store.getOccupancy(0));
+    }
+
+    @Test
+    void add_GrowsAcrossChunks() {
+        PositionStore store = new PositionStore();
+        Random random = new Random(22);
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        String[] fens = new String[100_000];
+        for (int i = 0; i < fens.length; i++) {
+            moves.clear();
+            if (game.legalMoves(moves) == 0 || game.getMoveCount() > 200) {
+                game = new ChessGame();
+                moves.clear();
+                game.legalMoves(moves);
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            if (i % 997 == 0) {
+                fens[i] = game.toFen();
+            }
+            assertEquals(i, store.add(game));
+        }
+        assertEquals(100_000, store.size());
+        assertTrue(store.allocatedBytes() >= 100_000L * PositionStore.BYTES_PER_POSITION);
+        for (int i = 0; i < fens.length; i += 997) {
+            assertEquals(fens[i], store.getGame(i).toFen());
+        }
+    }
+
+    @Test
+    void set_ReplacesPosition() {
+        PositionStore store = new PositionStore(4);
+        store.add(new ChessGame());
+        store.set(0, ChessGame.fromFen(KIWIPETE));
+        assertEquals(KIWIPETE, store.getGame(0).toFen());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getGame(1));
+
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        int index = store.add(board, ChessGame.TeamColor.BLACK);
+        assertEquals(board, store.getBoard(index));
+        assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b - - 0 1", store.getGame(index).toFen());
+    }
+}
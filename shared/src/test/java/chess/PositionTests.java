@@ -0,0 +1,99 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class PositionTests {
+
+    @Test
+    void snapshot_UnchangedByLaterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Position start = game.snapshot();
+        game.makeMove(move(2, 5, 4, 5));
+
+        assertEquals(ChessGame.STARTING_FEN, start.toFen());
+        assertEquals(ChessPiece.PieceType.PAWN, start.getPiece(new ChessPosition(2, 5)).getPieceType());
+        assertNull(start.getPiece(new ChessPosition(4, 5)));
+        assertEquals(ChessGame.TeamColor.WHITE, start.getTeamTurn());
+        assertEquals(new ChessGame().snapshot(), start);
+    }
+
+    @Test
+    void snapshot_ToGame() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 3 9");
+        Position position = game.snapshot();
+        ChessGame copy = position.toGame();
+
+        assertEquals(game.toFen(), copy.toFen());
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+        assertEquals(game.getBoard(), position.toBoard());
+        assertEquals(Perft.perft(game, 2), Perft.perft(copy, 2));
+        assertEquals(position, copy.getPosition());
+        assertEquals(position, game.getPosition());
+    }
+
+    @Test
+    void getPosition_PublishedByMakeMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Position start = game.getPosition();
+        assertSame(start, game.getPosition());
+
+        game.makeMove(move(2, 5, 4, 5));
+        Position next = game.getPosition();
+        assertNotSame(start, next);
+        assertEquals(game.getZobristKey(), next.getZobristKey());
+        assertEquals(ChessGame.TeamColor.BLACK, next.getTeamTurn());
+    }
+
+    @Test
+    void getPosition_PublishedBySetters() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        assertEquals(KIWIPETE, game.getPosition().toFen());
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(ChessGame.TeamColor.BLACK, game.getPosition().getTeamTurn());
+        game.setHalfmoveClock(12);
+        assertEquals(12, game.getPosition().getHalfmoveClock());
+
+        game.setBoard(new ChessGame().getBoard().copy());
+        assertEquals(game.getZobristKey(), game.getPosition().getZobristKey());
+
+        game.makeMove(move(7, 5, 5, 5));
+        Gson gson = new Gson();
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(game.getPosition(), read.getPosition());
+    }
+
+    @Test
+    void getPosition_ConsistentForConcurrentReaders() throws Exception {
+        ChessGame game = new ChessGame();
+        game.getPosition();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                Position position = game.getPosition();
+                if (position.toGame().getZobristKey() != position.getZobristKey()) {
+                    failure.set(position.toFen());
+                }
+            }
+        });
+        reader.start();
+        //every pawn two single steps, never repeating a position
+        for (int row = 0; row < 2; row++) {
+            for (int col = 1; col <= 8; col++) {
+                game.makeMove(move(2 + row, col, 3 + row, col));
+                game.makeMove(move(7 - row, col, 6 - row, col));
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+}
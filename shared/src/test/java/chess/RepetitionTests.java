@@ -0,0 +1,121 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepetitionTests {
+
+    private ChessGame game;
+
+    @BeforeEach
+    void setup() {
+        game = new ChessGame();
+    }
+
+    private void knightsOutAndBack() throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+    }
+
+    @Test
+    void getRepetitionCount_Threefold() throws InvalidMoveException {
+        assertEquals(1, game.getRepetitionCount());
+        knightsOutAndBack();
+        assertEquals(2, game.getRepetitionCount());
+        assertFalse(game.isGameOver());
+
+        knightsOutAndBack();
+        assertTrue(game.isThreefoldRepetition());
+        assertFalse(game.isFivefoldRepetition());
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+        assertTrue(game.canClaimDraw());
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    void getRepetitionCount_Fivefold() throws InvalidMoveException {
+        for (int i = 0; i < 4; i++) {
+            knightsOutAndBack();
+        }
+        assertEquals(5, game.getRepetitionCount());
+        assertEquals(GameStatus.State.DRAW_BY_REPETITION, game.getStatus().state());
+        assertTrue(game.isGameOver());
+        assertFalse(game.canClaimDraw());
+        assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+
+        game.undoMove();
+        assertFalse(game.isGameOver());
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    void canClaimDraw_Threefold() throws InvalidMoveException {
+        knightsOutAndBack();
+        assertFalse(game.canClaimDraw());
+
+        knightsOutAndBack();
+        assertTrue(game.canClaimDraw());
+        game.resign(ChessGame.TeamColor.WHITE);
+        assertFalse(game.canClaimDraw());
+    }
+
+    @Test
+    void getRepetitionCount_PawnMoveResets() throws InvalidMoveException {
+        knightsOutAndBack();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        knightsOutAndBack();
+        assertEquals(2, game.getRepetitionCount());
+        assertEquals(GameStatus.State.ONGOING, game.getStatus().state());
+    }
+
+    @Test
+    void getRepetitionCount_SurvivesGson() throws InvalidMoveException {
+        Gson gson = new Gson();
+        knightsOutAndBack();
+        game = gson.fromJson(gson.toJson(game), ChessGame.class);
+        knightsOutAndBack();
+        assertEquals(3, game.getRepetitionCount());
+    }
+
+    @Test
+    void getRepetitionCount_GsonWritesOnlyRecentKeys() throws InvalidMoveException {
+        Gson gson = new Gson();
+        assertTrue(gson.toJson(game).contains("\"positionHistory\":[]"));
+
+        knightsOutAndBack();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        String json = gson.toJson(game);
+        //the pawn move reset the clock, so only the key before the knight move is left
+        assertEquals(1, gson.fromJson(json, JsonObject.class).getAsJsonArray("positionHistory").size());
+
+        ChessGame copy = gson.fromJson(json, ChessGame.class);
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+        copy.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        copy.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        copy.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        copy.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        assertEquals(2, copy.getRepetitionCount());
+    }
+
+    @Test
+    void getRepetitionCount_Undo() throws InvalidMoveException {
+        knightsOutAndBack();
+        knightsOutAndBack();
+        assertTrue(game.canClaimDraw());
+        game.undoMove();
+        assertFalse(game.canClaimDraw());
+        game.doMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        assertTrue(game.canClaimDraw());
+        game.undoMove();
+        assertFalse(game.canClaimDraw());
+    }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedInstanceTests {
+
+    @Test
+    void positionOf_SameInstance() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                assertSame(position, ChessPosition.of(row, col));
+                assertSame(position, ChessPosition.of(Bitboards.square(row, col)));
+                assertEquals(new ChessPosition(row, col), position);
+                assertEquals(new ChessPosition(row, col).hashCode(), position.hashCode());
+                assertEquals(row, position.getRow());
+                assertEquals(col, position.getColumn());
+            }
+        }
+    }
+
+    @Test
+    void positionOf_OffBoard() {
+        ChessPosition position = ChessPosition.of(0, 9);
+        assertEquals(new ChessPosition(0, 9), position);
+        assertNotSame(position, ChessPosition.of(0, 9));
+        assertEquals(9, ChessPosition.of(9, 1).getRow());
+    }
+
+    @Test
+    void pieceOf_SameInstance() {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece piece = ChessPiece.of(color, type);
+                assertSame(piece, ChessPiece.of(color, type));
+                assertSame(piece, ChessPiece.of(Bitboards.pieceIndex(Bitboards.color(color), type)));
+                assertEquals(new ChessPiece(color, type), piece);
+                assertEquals(color, piece.getTeamColor());
+                assertEquals(type, piece.getPieceType());
+            }
+        }
+    }
+
+    @Test
+    void generatedMoves_UseSharedInstances() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int col = 1; col <= 8; col++) {
+            ChessPiece piece = game.getBoard().getPiece(new ChessPosition(1, col));
+            assertSame(ChessPiece.of(piece.getTeamColor(), piece.getPieceType()), piece);
+        }
+        for (ChessMove move : game.legalMoves()) {
+            ChessPosition start = move.getStartPosition();
+            ChessPosition end = move.getEndPosition();
+            assertSame(ChessPosition.of(start.getRow(), start.getColumn()), start);
+            assertSame(ChessPosition.of(end.getRow(), end.getColumn()), end);
+        }
+
+        ChessGame promotion = ChessGame.fromFen("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        promotion.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN),
+                promotion.getBoard().getPiece(new ChessPosition(8, 1)));
+    }
+}
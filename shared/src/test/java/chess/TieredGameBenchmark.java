@@ -0,0 +1,72 @@
+package chess;
+
+import java.lang.ref.Reference;
+import java.util.Random;
+
+/**
+ * Measures the memory a {@link TieredGame} takes while live and once
+ * compacted, both from the heap actually in use and from the
+ * {@link TieredGame#residentBytes()} estimate.
+ * <p>
+ * Run {@code java -cp shared/target/classes:shared/target/test-classes
+ * chess.TieredGameBenchmark [games] [plies]} after {@code mvn test-compile}.
+ */
+public final class TieredGameBenchmark {
+
+    private TieredGameBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        Random random = new Random(25);
+        MoveList moves = new MoveList();
+        long empty = usedHeap();
+        TieredGame[] games = new TieredGame[count];
+        long history = 0;
+        for (int i = 0; i < count; i++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < plies; ply++) {
+                moves.clear();
+                if (game.legalMoves(moves) == 0) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+            }
+            game.getStatus();
+            history += Footprint.array(game.getMoveCount(), 2);
+            games[i] = new TieredGame(game);
+        }
+        long activeEstimate = averageResidentBytes(games);
+        long active = (usedHeap() - empty) / count;
+        for (TieredGame game : games) {
+            game.compact();
+        }
+        long idleEstimate = averageResidentBytes(games);
+        long idle = (usedHeap() - empty) / count;
+        //the games have to stay reachable until the heap has been measured
+        Reference.reachabilityFence(games);
+
+        System.out.printf("%,d games of %d plies, bytes per game measured (estimated)%n", count, plies);
+        System.out.printf("active: %,d (%,d)%n", active, activeEstimate);
+        System.out.printf("idle:   %,d (%,d), %d of them move history%n", idle, idleEstimate, history / count);
+        System.out.printf("idle games take %.1fx less memory (%.1fx estimated)%n",
+                (double) active / idle, (double) activeEstimate / idleEstimate);
+    }
+
+    private static long averageResidentBytes(TieredGame[] games) {
+        long total = 0;
+        for (TieredGame game : games) {
+            total += game.residentBytes();
+        }
+        return total / games.length;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
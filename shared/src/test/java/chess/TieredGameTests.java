@@ -0,0 +1,97 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class TieredGameTests {
+    @Test
+    void compact_RoundTrip() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        //black can take the a-pawn en passant
+        play(game, 2, 1, 4, 1);
+        ChessGame expanded = game.compact().expand();
+        assertEquals(game.toFen(), expanded.toFen());
+        assertEquals(game.getZobristKey(), expanded.getZobristKey());
+        assertEquals(game.getBoard(), expanded.getBoard());
+        assertEquals(game.countLegalMoves(ChessGame.TeamColor.BLACK), expanded.countLegalMoves(ChessGame.TeamColor.BLACK));
+
+        //and then gives up kingside castling
+        play(expanded, 8, 8, 8, 7);
+        expanded = expanded.compact().expand();
+        assertEquals("r3k1r1/p1ppqpb1/bn2pnp1/3PN3/Pp2P3/2N2Q1p/1PPBBPPP/R3K2R w KQq - 1 2", expanded.toFen());
+        assertEquals(2, expanded.getMoveCount());
+        assertEquals(new ChessMove(new ChessPosition(8, 8), new ChessPosition(8, 7), null), expanded.getMove(1));
+    }
+
+    @Test
+    void compact_KeepsRepetitions() {
+        ChessGame game = new ChessGame();
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        assertEquals(2, game.getRepetitionCount());
+
+        ChessGame expanded = game.compact().expand();
+        assertEquals(2, expanded.getRepetitionCount());
+        play(expanded, 6, 6, 8, 7);
+        assertTrue(expanded.isThreefoldRepetition());
+        assertTrue(expanded.canClaimDraw());
+    }
+
+    @Test
+    void compact_KeepsResult() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.resign(ChessGame.TeamColor.WHITE);
+        CompactGame compact = game.compact();
+        assertTrue(compact.isGameOver());
+        ChessGame expanded = compact.expand();
+        assertTrue(expanded.isGameOver());
+        assertThrows(InvalidMoveException.class, () -> expanded.resign(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void tieredGame_ExpandsOnMove() throws InvalidMoveException {
+        TieredGame tiered = new TieredGame(new ChessGame());
+        tiered.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertFalse(tiered.compactIfIdle(Long.MAX_VALUE));
+        assertTrue(tiered.compactIfIdle(0));
+        assertTrue(tiered.isIdle());
+
+        tiered.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        assertFalse(tiered.isIdle());
+        assertEquals(2, tiered.withGame(ChessGame::getMoveCount));
+        assertEquals(ChessGame.TeamColor.WHITE, tiered.withGame(ChessGame::getTeamTurn));
+        assertThrows(InvalidMoveException.class,
+                () -> tiered.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null)));
+    }
+
+    @Test
+    void tieredGame_KeepsNoOutsideReference() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        TieredGame tiered = new TieredGame(game);
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(0, tiered.withGame(ChessGame::getMoveCount));
+
+        tiered.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        tiered.compact();
+        tiered.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        assertEquals(2, tiered.withGame(ChessGame::getMoveCount));
+    }
+
+    @Test
+    void tieredGame_ResidentBytes() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        game.getStatus();
+        TieredGame tiered = new TieredGame(game);
+        long active = tiered.residentBytes();
+        tiered.compact();
+        long idle = tiered.residentBytes();
+        assertTrue(idle * 8 < active, idle + " idle, " + active + " active");
+    }
+}
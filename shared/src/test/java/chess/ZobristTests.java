@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.GameTestUtilities.*;
+
+public class ZobristTests {
+
+    @Test
+    void getZobristKey_Transposition() {
+        ChessGame first = new ChessGame();
+        play(first, 1, 7, 3, 6);
+        play(first, 8, 7, 6, 6);
+        play(first, 1, 2, 3, 3);
+
+        ChessGame second = new ChessGame();
+        play(second, 1, 2, 3, 3);
+        play(second, 8, 7, 6, 6);
+        play(second, 1, 7, 3, 6);
+
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+        assertEquals(first.getBoard().getZobristKey(), second.getBoard().getZobristKey());
+    }
+
+    @Test
+    void getZobristKey_UndoRestoresKey() {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+        play(game, 2, 5, 4, 5);
+        assertNotEquals(start, game.getZobristKey());
+
+        game.undoMove();
+        assertEquals(start, game.getZobristKey());
+    }
+
+    @Test
+    void getZobristKey_SideAndCastling() {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(start, game.getZobristKey());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        //knight out and back loses nothing, rook out and back loses castling
+        play(game, 1, 7, 3, 6);
+        play(game, 8, 7, 6, 6);
+        play(game, 3, 6, 1, 7);
+        play(game, 6, 6, 8, 7);
+        assertEquals(start, game.getZobristKey());
+
+        ChessGame rooks = new ChessGame();
+        rooks.getBoard().addPiece(new ChessPosition(1, 7), null);
+        long withoutKnight = rooks.getZobristKey();
+        long placement = rooks.getBoard().getZobristKey();
+        play(rooks, 1, 8, 1, 7);
+        play(rooks, 8, 7, 6, 6);
+        play(rooks, 1, 7, 1, 8);
+        play(rooks, 6, 6, 8, 7);
+        assertEquals(placement, rooks.getBoard().getZobristKey());
+        assertNotEquals(withoutKnight, rooks.getZobristKey());
+    }
+}
@@ -0,0 +1,44 @@
+package passoff.chess;
+
+import chess.*;
+
+/**
+ * Fixtures shared by the engine tests in {@code chess}: move shorthands,
+ * games loaded from board text and the Kiwipete test position.
+ */
+public class GameTestUtilities {
+    /**
+     * The second position in the published perft tables, with castling, en
+     * passant and promotions all close at hand
+     */
+    public static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    public static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return move(startRow, startCol, endRow, endCol, null);
+    }
+
+    public static ChessMove move(int startRow, int startCol, int endRow, int endCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), promotion);
+    }
+
+    /**
+     * Plays a move with {@link ChessGame#doMove(ChessMove)}, without checking it
+     */
+    public static void play(ChessGame game, int startRow, int startCol, int endRow, int endCol) {
+        game.doMove(move(startRow, startCol, endRow, endCol));
+    }
+
+    /**
+     * @return a game on the board from {@link TestUtilities#loadBoard}, white to move
+     */
+    public static ChessGame game(String boardText) {
+        return game(boardText, ChessGame.TeamColor.WHITE);
+    }
+
+    public static ChessGame game(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+}